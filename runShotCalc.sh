@@ -18,6 +18,7 @@ if [[ -z "$LIB_PATH" ]]; then
 fi
 
 # Pass through optional distance args, e.g. ./runShotCalc.sh 2.35 4.10
+# or a batch sweep, e.g. ./runShotCalc.sh --sweep xy=0.25 format=bin out=sweep.bin
 LD_LIBRARY_PATH="$LIB_PATH${LD_LIBRARY_PATH:+:$LD_LIBRARY_PATH}" \
 	java -Djava.library.path="$LIB_PATH" \
 		-cp build/libs/6243-2026REBUILT.jar \
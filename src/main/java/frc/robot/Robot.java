@@ -12,6 +12,8 @@ import com.pathplanner.lib.commands.FollowPathCommand;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.util.CANSignalBudget;
+import frc.robot.util.LoggedTalon.ConfigApplier;
 import frc.robot.util.PhoenixUtil;
 import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
@@ -79,6 +81,9 @@ public class Robot extends LoggedRobot {
     // and put our autonomous chooser on the dashboard.
     robotContainer = new RobotContainer();
 
+    // Every subsystem has registered its CAN signals by now
+    CANSignalBudget.applyBudget();
+
     CommandScheduler.getInstance().schedule(FollowPathCommand.warmupCommand());
   }
 
@@ -98,6 +103,10 @@ public class Robot extends LoggedRobot {
     // the Command-based framework to work.
     CommandScheduler.getInstance().run();
 
+    // Blocking CAN refreshes this loop; should be one per bus
+    Logger.recordOutput("PhoenixUtil/RefreshCalls", PhoenixUtil.getAndResetRefreshCount());
+    ConfigApplier.log();
+
     // Return to non-RT thread priority (do not modify the first argument)
     // Threads.setCurrentThreadPriority(false, 10);
   }
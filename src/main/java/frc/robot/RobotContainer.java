@@ -36,6 +36,7 @@ import frc.robot.subsystems.leds.LED;
 import frc.robot.subsystems.leds.LEDIO;
 import frc.robot.subsystems.leds.LEDIOReal;
 import frc.robot.subsystems.shooter.Shooter;
+import frc.robot.subsystems.shooter.ShotCalculatorUpdater;
 import frc.robot.subsystems.vision.Vision;
 import frc.robot.subsystems.vision.VisionIO;
 import frc.robot.subsystems.vision.VisionIOPhotonVision;
@@ -137,6 +138,8 @@ public class RobotContainer {
         led = new LED(new LEDIO() {});
         break;
     }
+    // Registered after drive and vision so the shot uses this loop's pose
+    new ShotCalculatorUpdater();
     shooter = new Shooter(rioCAN);
 
     configureButtonBindings();
@@ -15,6 +15,7 @@ import frc.robot.util.AllianceFlipUtil;
 import frc.robot.util.FieldConstants;
 import frc.robot.util.FieldConstants.LinesHorizontal;
 import frc.robot.util.FieldConstants.LinesVertical;
+import frc.robot.util.PoseHistoryBuffer;
 import lombok.Getter;
 import lombok.Setter;
 import org.littletonrobotics.junction.AutoLogOutput;
@@ -36,6 +37,9 @@ public class RobotState {
     AutoLogOutputManager.addObject(this);
   }
 
+  private static final int poseHistoryCapacity = 512;
+  private static final double poseHistoryMaxExtrapolationSec = 0.25;
+
   @Getter @Setter private boolean autoGoal = true;
 
   public Goal updateGoal() {
@@ -63,6 +67,11 @@ public class RobotState {
   @Getter @Setter private ChassisSpeeds robotRelativeVelocity = new ChassisSpeeds();
   @Getter @Setter private Pose2d robotPosition = new Pose2d();
 
+  // Odometry-rate pose and velocity history, filled by Drive. 512 samples is ~2 s at 250 Hz.
+  @Getter
+  private final PoseHistoryBuffer poseHistory =
+      new PoseHistoryBuffer(poseHistoryCapacity, poseHistoryMaxExtrapolationSec);
+
   @AutoLogOutput
   private static final Rectangle2d topTarget =
       new Rectangle2d(
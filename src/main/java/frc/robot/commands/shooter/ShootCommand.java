@@ -53,7 +53,9 @@ public class ShootCommand {
                           // target.
                           shooter.getHood().requestAngle(shot.hoodAngle());
                         }),
-                indexer.runWhenShooterReady(shooter));
+                indexer.runWhenShooterReady(shooter))
+            .beforeStarting(() -> shooter.getFlywheel().setHighRate(true))
+            .finallyDo(() -> shooter.getFlywheel().setHighRate(false));
 
     // Enable indexer rollers only for the lifetime of the core shoot command. Use the
     // actual roller subsystems as the requirements so start/end run with proper ownership.
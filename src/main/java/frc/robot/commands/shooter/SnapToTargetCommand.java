@@ -39,7 +39,6 @@ public class SnapToTargetCommand extends Command {
 
   @Override
   public void initialize() {
-    ShotCalculator.getInstance().clearCache();
     yawPID.reset();
     invalidShotLatched = false;
   }
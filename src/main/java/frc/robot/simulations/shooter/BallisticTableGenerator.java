@@ -0,0 +1,270 @@
+package frc.robot.simulations.shooter;
+
+import frc.robot.util.FieldConstants.Hub;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Offline tool that builds ShotCalculator's distance tables from a projectile model instead of
+ * hand-shaped curves.
+ *
+ * <p>For every table distance and hood angle it integrates the ball's flight (RK4, quadratic drag
+ * and Magnus lift from backspin) at increasing flywheel speeds and keeps the lowest speed whose
+ * trajectory clears the near rim of the {@link Hub} and comes down through its opening. The
+ * (distance, hood) pairs are searched in parallel on the common ForkJoin pool; each distance then
+ * takes the hood angle with the lowest flywheel speed. The result is written as CSV, which
+ * ShotCalculator loads at startup when present.
+ *
+ * <p>Usage: {@code BallisticTableGenerator [outputFile]}, defaulting to {@code
+ * src/main/deploy/shooter/shot_table.csv}. Run it the same way as runShotCalc.sh runs ShotCalcSim.
+ *
+ * <p>The physical constants below are estimates and should be replaced with measured values.
+ */
+public class BallisticTableGenerator {
+  // Table grid (matches ShotCalculator's distance range; ShotCalculator resamples anyway)
+  private static final double minDistance = 1.3;
+  private static final double maxDistance = 5.8;
+  private static final double distanceStep = 0.1;
+
+  // Candidate search space
+  private static final double hoodMinDeg = 43.0;
+  private static final double hoodMaxDeg = 70.0;
+  private static final double hoodStepDeg = 0.25;
+  private static final double rpmMin = 500.0;
+  private static final double rpmMax = 6000.0;
+  private static final double rpmStep = 10.0;
+
+  // Ball (game piece) properties
+  private static final double ballMassKg = 0.215;
+  private static final double ballRadiusMeters = 0.075;
+  private static final double dragCoefficient = 0.47;
+  private static final double airDensity = 1.2;
+
+  // Shooter properties. The hood angle is measured from vertical, so the launch elevation above
+  // horizontal is 90 deg minus the hood angle.
+  private static final double launchHeightMeters = 0.55;
+  private static final double flywheelRadiusMeters = 0.0508;
+  // Fraction of the wheel surface speed that reaches the ball (slip, compression losses).
+  private static final double launchEfficiency = 0.85;
+
+  // Integration
+  private static final double dtSec = 0.002;
+  private static final double maxFlightSec = 3.0;
+
+  // Derived constants
+  private static final double ballArea = Math.PI * ballRadiusMeters * ballRadiusMeters;
+  private static final double aeroFactor = 0.5 * airDensity * ballArea / ballMassKg;
+  private static final double gravity = 9.80665;
+
+  // Results indexed by distance * hoodCount + hood; NaN when nothing in the RPM range clears.
+  private final int distanceCount;
+  private final int hoodCount;
+  private final double[] bestRpm;
+  private final double[] bestTof;
+
+  private BallisticTableGenerator() {
+    distanceCount = (int) Math.round((maxDistance - minDistance) / distanceStep) + 1;
+    hoodCount = (int) Math.round((hoodMaxDeg - hoodMinDeg) / hoodStepDeg) + 1;
+    bestRpm = new double[distanceCount * hoodCount];
+    bestTof = new double[distanceCount * hoodCount];
+  }
+
+  private double distanceAt(int index) {
+    return minDistance + index * distanceStep;
+  }
+
+  private double hoodAt(int index) {
+    return hoodMinDeg + index * hoodStepDeg;
+  }
+
+  /** Splits the flattened (distance, hood) index range until it is small enough to solve. */
+  private class SearchTask extends RecursiveAction {
+    private static final int leafSize = 16;
+    private final int start;
+    private final int end;
+
+    SearchTask(int start, int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= leafSize) {
+        double[] tofOut = new double[1];
+        for (int i = start; i < end; i++) {
+          double distance = distanceAt(i / hoodCount);
+          double hoodDeg = hoodAt(i % hoodCount);
+          bestRpm[i] = Double.NaN;
+          bestTof[i] = Double.NaN;
+          // Lowest RPM first, so the first trajectory that scores is the minimum.
+          for (double rpm = rpmMin; rpm <= rpmMax; rpm += rpmStep) {
+            if (simulate(distance, hoodDeg, rpm, tofOut)) {
+              bestRpm[i] = rpm;
+              bestTof[i] = tofOut[0];
+              break;
+            }
+          }
+        }
+        return;
+      }
+      int mid = (start + end) >>> 1;
+      invokeAll(new SearchTask(start, mid), new SearchTask(mid, end));
+    }
+  }
+
+  /**
+   * Integrates one shot toward the hub center {@code distance} meters away.
+   *
+   * @param tofOut receives the time at which the ball descends through the rim plane
+   * @return true if the ball clears the near rim and drops through the opening
+   */
+  static boolean simulate(double distance, double hoodDeg, double rpm, double[] tofOut) {
+    double rimHeight = Hub.height;
+    double nearRimX = distance - Hub.width / 2.0;
+    // The ball center has to stay one radius inside the opening.
+    double openingStartX = distance - Hub.innerWidth / 2.0 + ballRadiusMeters;
+    double openingEndX = distance + Hub.innerWidth / 2.0 - ballRadiusMeters;
+
+    // A hooded shooter rolls the ball between wheel and hood: the center moves at half the wheel
+    // surface speed and the ball picks up backspin.
+    double surfaceSpeed = rpm / 60.0 * 2.0 * Math.PI * flywheelRadiusMeters * launchEfficiency;
+    double speed = surfaceSpeed / 2.0;
+    double spinRadPerSec = surfaceSpeed / (2.0 * ballRadiusMeters);
+    double elevation = Math.toRadians(90.0 - hoodDeg);
+
+    double x = 0.0;
+    double z = launchHeightMeters;
+    double vx = speed * Math.cos(elevation);
+    double vz = speed * Math.sin(elevation);
+    boolean clearedRim = false;
+
+    for (double t = 0.0; t < maxFlightSec; t += dtSec) {
+      double prevX = x;
+      double prevZ = z;
+
+      // RK4 on (x, z, vx, vz)
+      double k1vx = ax(vx, vz, spinRadPerSec);
+      double k1vz = az(vx, vz, spinRadPerSec);
+      double k2vx = ax(vx + 0.5 * dtSec * k1vx, vz + 0.5 * dtSec * k1vz, spinRadPerSec);
+      double k2vz = az(vx + 0.5 * dtSec * k1vx, vz + 0.5 * dtSec * k1vz, spinRadPerSec);
+      double k3vx = ax(vx + 0.5 * dtSec * k2vx, vz + 0.5 * dtSec * k2vz, spinRadPerSec);
+      double k3vz = az(vx + 0.5 * dtSec * k2vx, vz + 0.5 * dtSec * k2vz, spinRadPerSec);
+      double k4vx = ax(vx + dtSec * k3vx, vz + dtSec * k3vz, spinRadPerSec);
+      double k4vz = az(vx + dtSec * k3vx, vz + dtSec * k3vz, spinRadPerSec);
+      x +=
+          dtSec
+              / 6.0
+              * (vx
+                  + 2.0 * (vx + 0.5 * dtSec * k1vx)
+                  + 2.0 * (vx + 0.5 * dtSec * k2vx)
+                  + (vx + dtSec * k3vx));
+      z +=
+          dtSec
+              / 6.0
+              * (vz
+                  + 2.0 * (vz + 0.5 * dtSec * k1vz)
+                  + 2.0 * (vz + 0.5 * dtSec * k2vz)
+                  + (vz + dtSec * k3vz));
+      vx += dtSec / 6.0 * (k1vx + 2.0 * k2vx + 2.0 * k3vx + k4vx);
+      vz += dtSec / 6.0 * (k1vz + 2.0 * k2vz + 2.0 * k3vz + k4vz);
+
+      // Crossing the near rim: the bottom of the ball must be above the top of the hub.
+      if (!clearedRim && prevX < nearRimX && x >= nearRimX) {
+        double f = (nearRimX - prevX) / (x - prevX);
+        double zAtRim = prevZ + f * (z - prevZ);
+        if (zAtRim < rimHeight + ballRadiusMeters) {
+          return false;
+        }
+        clearedRim = true;
+      }
+
+      // Descending through the rim plane: must be over the opening.
+      if (prevZ >= rimHeight && z < rimHeight && vz < 0.0) {
+        double f = (prevZ - rimHeight) / (prevZ - z);
+        double xAtRim = prevX + f * (x - prevX);
+        tofOut[0] = t + f * dtSec;
+        return clearedRim && xAtRim >= openingStartX && xAtRim <= openingEndX;
+      }
+
+      // Fell short or passed the far side of the hub without coming down.
+      if (z < 0.0 || x > distance + Hub.width) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  // Drag opposes velocity; Magnus lift from backspin acts perpendicular to it (rotated +90 deg).
+  private static double ax(double vx, double vz, double spin) {
+    double v = Math.hypot(vx, vz);
+    return -aeroFactor * v * (dragCoefficient * vx + liftCoefficient(spin, v) * vz);
+  }
+
+  private static double az(double vx, double vz, double spin) {
+    double v = Math.hypot(vx, vz);
+    return -gravity + aeroFactor * v * (liftCoefficient(spin, v) * vx - dragCoefficient * vz);
+  }
+
+  // Lift coefficient from the spin ratio S = r * omega / v, saturating toward 0.5 at high spin.
+  private static double liftCoefficient(double spin, double speed) {
+    if (speed < 1e-6) {
+      return 0.0;
+    }
+    double spinRatio = ballRadiusMeters * spin / speed;
+    return spinRatio / (2.0 * spinRatio + 1.0);
+  }
+
+  private void writeTable(Path output) throws IOException {
+    Files.createDirectories(output.toAbsolutePath().getParent());
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output))) {
+      writer.println("# Generated by BallisticTableGenerator. Lowest-RPM shot per distance.");
+      writer.println("distance_m,hood_deg,flywheel_rpm,time_of_flight_s");
+      for (int d = 0; d < distanceCount; d++) {
+        int best = -1;
+        for (int h = 0; h < hoodCount; h++) {
+          int i = d * hoodCount + h;
+          if (!Double.isNaN(bestRpm[i]) && (best < 0 || bestRpm[i] < bestRpm[best])) {
+            best = i;
+          }
+        }
+        if (best < 0) {
+          writer.printf("# %.2f: no solution in range%n", distanceAt(d));
+          System.out.printf("Distance %.2fm -> no solution%n", distanceAt(d));
+          continue;
+        }
+        writer.printf(
+            "%.3f,%.3f,%.1f,%.4f%n",
+            distanceAt(d), hoodAt(best % hoodCount), bestRpm[best], bestTof[best]);
+        System.out.printf(
+            "Distance %.2fm -> Hood: %.2f deg | Flywheel: %.0f RPM | TOF: %.3f s%n",
+            distanceAt(d), hoodAt(best % hoodCount), bestRpm[best], bestTof[best]);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    Path output =
+        args.length > 0
+            ? Path.of(args[0])
+            : Path.of("src", "main", "deploy", "shooter", "shot_table.csv");
+
+    BallisticTableGenerator generator = new BallisticTableGenerator();
+    long startNs = System.nanoTime();
+    ForkJoinPool.commonPool()
+        .invoke(generator.new SearchTask(0, generator.distanceCount * generator.hoodCount));
+    System.out.printf(
+        "Searched %d distances x %d hood angles on %d threads in %.1f s%n",
+        generator.distanceCount,
+        generator.hoodCount,
+        ForkJoinPool.commonPool().getParallelism(),
+        (System.nanoTime() - startNs) / 1e9);
+
+    generator.writeTable(output);
+    System.out.println("Wrote " + output);
+  }
+}
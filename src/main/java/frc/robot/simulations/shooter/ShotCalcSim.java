@@ -7,6 +7,8 @@ import frc.robot.simulations.FakeRobotState;
 import frc.robot.subsystems.shooter.ShotCalculator;
 import frc.robot.subsystems.shooter.ShotCalculator.Goal;
 import frc.robot.subsystems.shooter.ShotCalculator.ShotParameters;
+import java.io.IOException;
+import java.util.Arrays;
 
 public class ShotCalcSim {
 
@@ -20,7 +22,7 @@ public class ShotCalcSim {
     FakeRobotState.setPose(fakePose);
     FakeRobotState.setVelocity(0, 0, 0);
 
-    calc.clearCache();
+    calc.update();
     ShotParameters shot = calc.calculateShot();
 
     if (!shot.isValid()) {
@@ -34,7 +36,12 @@ public class ShotCalcSim {
         distanceMeters, shot.hoodAngle().getDegrees(), shot.flywheelSpeedRPM());
   }
 
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
+    // Batch mode: ShotCalcSim --sweep [key=value ...] (see ShotSweep for the options).
+    if (args.length > 0 && args[0].equals("--sweep")) {
+      ShotSweep.run(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
 
     ShotCalculator calc = ShotCalculator.getInstance();
 
@@ -0,0 +1,28 @@
+package frc.robot.simulations.shooter;
+
+import frc.robot.subsystems.shooter.ShotSolutionMap;
+import java.nio.file.Path;
+
+/**
+ * Writes the field-wide shot solution map that ShotCalculator can load from the deploy directory.
+ *
+ * <p>Usage: {@code ShotMapGenerator [cellSizeMeters] [outputFile]}. Defaults to a 0.2 m grid
+ * written to {@code src/main/deploy/shooter/shotmap.bin}. Run it the same way as runShotCalc.sh
+ * runs ShotCalcSim.
+ */
+public class ShotMapGenerator {
+  private static final double defaultCellSizeMeters = 0.2;
+
+  public static void main(String[] args) throws Exception {
+    double cellSizeMeters = args.length > 0 ? Double.parseDouble(args[0]) : defaultCellSizeMeters;
+    Path output =
+        args.length > 1
+            ? Path.of(args[1])
+            : Path.of("src", "main", "deploy").resolve(ShotSolutionMap.deployPath);
+
+    ShotSolutionMap.generate(output, cellSizeMeters);
+    System.out.printf(
+        "Wrote %s (%.2f m cells, %d bytes)%n",
+        output, cellSizeMeters, output.toFile().length());
+  }
+}
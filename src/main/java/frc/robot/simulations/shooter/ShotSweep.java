@@ -0,0 +1,220 @@
+package frc.robot.simulations.shooter;
+
+import frc.robot.subsystems.shooter.ShotCalculator;
+import frc.robot.subsystems.shooter.ShotCalculator.Goal;
+import frc.robot.subsystems.shooter.ShotCalculator.ShotSolution;
+import frc.robot.util.FieldConstants;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Batch sweep of {@link ShotCalculator#solveShot} over a grid of field positions, robot-relative
+ * velocities (vx, vy, omega) and goals, run across all cores.
+ *
+ * <p>Options are {@code key=value} pairs after {@code --sweep} (defaults in parentheses): {@code
+ * xy} position step in meters (0.5), {@code v} velocity step in m/s (1.0), {@code vmax} (4.0),
+ * {@code omega} angular velocity step in rad/s (1.5), {@code omegamax} (3.0), {@code heading} in
+ * degrees (0), {@code red} to use red alliance targets (false), {@code format} csv or bin (csv),
+ * and {@code out} (shot_sweep.csv or shot_sweep.bin). The defaults give roughly 900k cases.
+ *
+ * <p>The binary format is columnar little endian: {@code int magic "SWP1", int rows, int
+ * columns}, then per column a length-prefixed UTF-8 name, then each column as {@code rows}
+ * float32 values. In numpy: read the header, then {@code np.frombuffer(..., '<f4')} per column.
+ */
+class ShotSweep {
+  private static final int magic = 0x31505753; // "SWP1"
+  private static final String[] columnNames = {
+    "x", "y", "heading", "vx", "vy", "omega", "goal", "valid", "distance", "yaw_deg", "hood_deg",
+    "flywheel_rpm", "iterations", "residual"
+  };
+
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] velocities;
+  private final double[] omegas;
+  private final Goal[] goals = Goal.values();
+  private final double headingRad;
+  private final boolean redAlliance;
+  private final int cases;
+
+  // Preallocated output columns; each case writes only its own row, so workers never contend.
+  private final float[][] columns;
+
+  private ShotSweep(Map<String, String> options) {
+    double xyStep = Double.parseDouble(options.getOrDefault("xy", "0.5"));
+    double vStep = Double.parseDouble(options.getOrDefault("v", "1.0"));
+    double vMax = Double.parseDouble(options.getOrDefault("vmax", "4.0"));
+    double omegaStep = Double.parseDouble(options.getOrDefault("omega", "1.5"));
+    double omegaMax = Double.parseDouble(options.getOrDefault("omegamax", "3.0"));
+    headingRad = Math.toRadians(Double.parseDouble(options.getOrDefault("heading", "0")));
+    redAlliance = Boolean.parseBoolean(options.getOrDefault("red", "false"));
+
+    xs = range(0.0, FieldConstants.fieldLength, xyStep);
+    ys = range(0.0, FieldConstants.fieldWidth, xyStep);
+    velocities = range(-vMax, vMax, vStep);
+    omegas = range(-omegaMax, omegaMax, omegaStep);
+    int poses = xs.length * ys.length;
+    cases = poses * velocities.length * velocities.length * omegas.length * goals.length;
+    columns = new float[columnNames.length][cases];
+  }
+
+  // Inclusive grid from min to max.
+  private static double[] range(double min, double max, double step) {
+    int count = step > 0.0 ? (int) Math.floor((max - min) / step + 1e-9) + 1 : 1;
+    double[] values = new double[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = min + i * step;
+    }
+    return values;
+  }
+
+  private void solveAll() {
+    int partitions = Runtime.getRuntime().availableProcessors() * 4;
+    IntStream.range(0, partitions)
+        .parallel()
+        .forEach(
+            partition -> {
+              ShotSolution solution = new ShotSolution();
+              int start = (int) ((long) cases * partition / partitions);
+              int end = (int) ((long) cases * (partition + 1) / partitions);
+              for (int i = start; i < end; i++) {
+                solveCase(i, solution);
+              }
+            });
+  }
+
+  private void solveCase(int index, ShotSolution solution) {
+    // Decode the index; goal varies slowest, omega fastest.
+    int rest = index;
+    int omegaIndex = rest % omegas.length;
+    rest /= omegas.length;
+    int vyIndex = rest % velocities.length;
+    rest /= velocities.length;
+    int vxIndex = rest % velocities.length;
+    rest /= velocities.length;
+    int yIndex = rest % ys.length;
+    rest /= ys.length;
+    int xIndex = rest % xs.length;
+    Goal goal = goals[rest / xs.length];
+
+    double targetX = goal.pose.getX();
+    double targetY = goal.pose.getY();
+    if (redAlliance) {
+      targetX = FieldConstants.fieldLength - targetX;
+      targetY = FieldConstants.fieldWidth - targetY;
+    }
+    ShotCalculator.solveShot(
+        xs[xIndex],
+        ys[yIndex],
+        headingRad,
+        velocities[vxIndex],
+        velocities[vyIndex],
+        omegas[omegaIndex],
+        targetX,
+        targetY,
+        solution);
+
+    int column = 0;
+    columns[column++][index] = (float) xs[xIndex];
+    columns[column++][index] = (float) ys[yIndex];
+    columns[column++][index] = (float) headingRad;
+    columns[column++][index] = (float) velocities[vxIndex];
+    columns[column++][index] = (float) velocities[vyIndex];
+    columns[column++][index] = (float) omegas[omegaIndex];
+    columns[column++][index] = goal.ordinal();
+    columns[column++][index] = solution.isValid() ? 1.0f : 0.0f;
+    columns[column++][index] = (float) solution.getLookaheadDistance();
+    columns[column++][index] = (float) Math.toDegrees(solution.getRobotYawRad());
+    columns[column++][index] = (float) solution.getHoodAngleDeg();
+    columns[column++][index] = (float) solution.getFlywheelSpeedRPM();
+    columns[column++][index] = solution.getLookaheadIterations();
+    columns[column][index] = (float) solution.getLookaheadResidual();
+  }
+
+  private void writeCsv(Path output) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+      writer.write(String.join(",", columnNames));
+      writer.newLine();
+      StringBuilder line = new StringBuilder(160);
+      for (int row = 0; row < cases; row++) {
+        line.setLength(0);
+        for (int column = 0; column < columns.length; column++) {
+          if (column > 0) {
+            line.append(',');
+          }
+          line.append(columns[column][row]);
+        }
+        writer.append(line);
+        writer.newLine();
+      }
+    }
+  }
+
+  private void writeBinary(Path output) throws IOException {
+    int headerBytes = 3 * Integer.BYTES;
+    for (String name : columnNames) {
+      headerBytes += Integer.BYTES + name.getBytes(StandardCharsets.UTF_8).length;
+    }
+    ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(magic).putInt(cases).putInt(columns.length);
+    for (String name : columnNames) {
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      header.putInt(bytes.length).put(bytes);
+    }
+    Files.write(output, header.array());
+
+    try (FileChannel channel = FileChannel.open(output, StandardOpenOption.APPEND)) {
+      ByteBuffer buffer =
+          ByteBuffer.allocateDirect(cases * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      for (float[] column : columns) {
+        buffer.clear();
+        buffer.asFloatBuffer().put(column);
+        buffer.limit(cases * Float.BYTES);
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+    }
+  }
+
+  /** Runs the sweep with the {@code key=value} options that followed {@code --sweep}. */
+  static void run(String[] args) throws IOException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int split = arg.indexOf('=');
+      if (split > 0) {
+        options.put(arg.substring(0, split), arg.substring(split + 1));
+      } else {
+        options.put(arg, "true");
+      }
+    }
+    boolean binary = options.getOrDefault("format", "csv").equals("bin");
+    Path output =
+        Path.of(options.getOrDefault("out", binary ? "shot_sweep.bin" : "shot_sweep.csv"));
+
+    ShotSweep sweep = new ShotSweep(options);
+    long startNs = System.nanoTime();
+    sweep.solveAll();
+    double solveSec = (System.nanoTime() - startNs) / 1e9;
+    System.out.printf(
+        "Solved %d cases on %d cores in %.2f s (%.0f cases/s)%n",
+        sweep.cases, Runtime.getRuntime().availableProcessors(), solveSec, sweep.cases / solveSec);
+
+    if (binary) {
+      sweep.writeBinary(output);
+    } else {
+      sweep.writeCsv(output);
+    }
+    System.out.println("Wrote " + output);
+  }
+}
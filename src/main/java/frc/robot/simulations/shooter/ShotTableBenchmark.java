@@ -0,0 +1,146 @@
+package frc.robot.simulations.shooter;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
+import edu.wpi.first.math.interpolation.InterpolatingTreeMap;
+import edu.wpi.first.math.interpolation.InverseInterpolator;
+import frc.robot.util.AllocationCounter;
+import frc.robot.util.UniformLookupTable;
+import java.util.Random;
+
+/**
+ * Desktop microbenchmark for the ShotCalculator lookup curves: the old boxed interpolating tree
+ * maps versus {@link UniformLookupTable}.
+ *
+ * <p>One "call" is the lookup pattern of a single ShotCalculator.calculateShot(): 20 time-of-flight
+ * lookups for motion compensation plus two hood and two flywheel lookups. Reports nanoseconds and
+ * bytes allocated per call. Only needs wpimath on the classpath (no HAL natives), e.g.
+ *
+ * <pre>
+ * ./gradlew build
+ * java -cp build/libs/6243-2026REBUILT.jar frc.robot.simulations.shooter.ShotTableBenchmark
+ * </pre>
+ */
+public class ShotTableBenchmark {
+  private static final double minDistance = 1.3;
+  private static final double maxDistance = 5.8;
+  private static final double step = 0.1;
+  private static final int tofLookupsPerCall = 20;
+
+  private static final int warmupCalls = 200_000;
+  private static final int measuredCalls = 1_000_000;
+  private static final int rounds = 5;
+
+  private static final InterpolatingTreeMap<Double, Rotation2d> hoodAngleMap =
+      new InterpolatingTreeMap<>(InverseInterpolator.forDouble(), Rotation2d::interpolate);
+  private static final InterpolatingDoubleTreeMap flywheelSpeedMap =
+      new InterpolatingDoubleTreeMap();
+  private static final InterpolatingDoubleTreeMap timeOfFlightMap =
+      new InterpolatingDoubleTreeMap();
+
+  private static final int tableSize = (int) Math.round((maxDistance - minDistance) / step) + 1;
+  private static final UniformLookupTable hoodAngleDegTable =
+      new UniformLookupTable(minDistance, maxDistance, tableSize);
+  private static final UniformLookupTable flywheelSpeedTable =
+      new UniformLookupTable(minDistance, maxDistance, tableSize);
+  private static final UniformLookupTable timeOfFlightTable =
+      new UniformLookupTable(minDistance, maxDistance, tableSize);
+
+  // Fixed pseudo-random distances (slightly past both ends to exercise clamping).
+  private static final double[] distances = new double[4096];
+
+  // Accumulates every result so the JIT cannot drop the lookups.
+  private static double sink = 0.0;
+
+  private static void buildTables() {
+    for (int i = 0; i < tableSize; i++) {
+      double d = hoodAngleDegTable.getX(i);
+      double t = (d - minDistance) / (maxDistance - minDistance);
+      double hoodDeg = 43.0 + Math.pow(t, 0.86) * 25.0;
+      double flywheel = 1000.0 + Math.pow(t, 1.245) * 4000.0;
+      double tof = 0.82 + (d - 1.3) * 0.085;
+
+      hoodAngleMap.put(d, Rotation2d.fromDegrees(hoodDeg));
+      flywheelSpeedMap.put(d, flywheel);
+      timeOfFlightMap.put(d, tof);
+
+      hoodAngleDegTable.set(i, hoodDeg);
+      flywheelSpeedTable.set(i, flywheel);
+      timeOfFlightTable.set(i, tof);
+    }
+
+    Random random = new Random(5892);
+    for (int i = 0; i < distances.length; i++) {
+      distances[i] = 1.0 + random.nextDouble() * 5.2;
+    }
+  }
+
+  private static void runTreeMaps(int calls) {
+    double acc = 0.0;
+    for (int call = 0; call < calls; call++) {
+      double d = distances[call & (distances.length - 1)];
+      for (int i = 0; i < tofLookupsPerCall; i++) {
+        acc += timeOfFlightMap.get(d + i * 1e-3);
+      }
+      acc += hoodAngleMap.get(d).getDegrees() + hoodAngleMap.get(d).getDegrees();
+      acc += flywheelSpeedMap.get(d) + flywheelSpeedMap.get(d);
+    }
+    sink += acc;
+  }
+
+  private static void runUniformTables(int calls) {
+    double acc = 0.0;
+    for (int call = 0; call < calls; call++) {
+      double d = distances[call & (distances.length - 1)];
+      for (int i = 0; i < tofLookupsPerCall; i++) {
+        acc += timeOfFlightTable.get(d + i * 1e-3);
+      }
+      acc += hoodAngleDegTable.get(d) + hoodAngleDegTable.get(d);
+      acc += flywheelSpeedTable.get(d) + flywheelSpeedTable.get(d);
+    }
+    sink += acc;
+  }
+
+  private static void report(String name, boolean treeMaps) {
+    if (treeMaps) {
+      runTreeMaps(warmupCalls);
+    } else {
+      runUniformTables(warmupCalls);
+    }
+
+    double bestNsPerCall = Double.POSITIVE_INFINITY;
+    double bytesPerCall = 0.0;
+    for (int round = 0; round < rounds; round++) {
+      long startBytes = AllocationCounter.getCurrentThreadAllocatedBytes();
+      long startNs = System.nanoTime();
+      if (treeMaps) {
+        runTreeMaps(measuredCalls);
+      } else {
+        runUniformTables(measuredCalls);
+      }
+      long elapsedNs = System.nanoTime() - startNs;
+      long allocatedBytes = AllocationCounter.getCurrentThreadAllocatedBytes() - startBytes;
+
+      bestNsPerCall = Math.min(bestNsPerCall, (double) elapsedNs / measuredCalls);
+      bytesPerCall = (double) allocatedBytes / measuredCalls;
+    }
+
+    System.out.printf(
+        "%-28s %8.1f ns/call  %8.1f B/call%s%n",
+        name,
+        bestNsPerCall,
+        bytesPerCall,
+        AllocationCounter.isSupported() ? "" : " (allocation counter unsupported)");
+  }
+
+  public static void main(String[] args) {
+    buildTables();
+    System.out.printf(
+        "%d calls x %d rounds, %d TOF + 2 hood + 2 flywheel lookups per call%n",
+        measuredCalls, rounds, tofLookupsPerCall);
+    report("InterpolatingTreeMap (old)", true);
+    report("UniformLookupTable (new)", false);
+    // Printing the sink keeps the results observable.
+    System.out.printf("checksum %.3f%n", sink);
+  }
+}
@@ -0,0 +1,47 @@
+package frc.robot.subsystems.drive;
+
+/**
+ * Maps timestamps from another clock (a Phoenix device or CANivore) onto the FPGA timebase.
+ *
+ * <p>Each observation pairs a sample's timestamp with the FPGA time it was received. Their
+ * difference is the clock offset plus a delivery delay that is never negative and is usually close
+ * to its minimum, so a running minimum of the difference tracks the offset. The minimum leaks
+ * upward slowly so that clock drift in either direction is followed. The result still includes the
+ * smallest delivery delay, which one-way observations can't separate from the offset.
+ */
+class ClockOffsetEstimator {
+  // Faster than any crystal drift, slow enough that the bias between minima stays in microseconds
+  private static final double leakSecPerSec = 1e-4;
+
+  private double offsetSec = Double.NaN;
+  private double lastFpgaSec = Double.NaN;
+
+  /**
+   * Adds an observation.
+   *
+   * @param sourceSec timestamp of the sample on the other clock, in seconds
+   * @param fpgaSec FPGA time at which the sample was received, in seconds
+   * @return the delivery delay of this sample beyond the smallest seen, in seconds
+   */
+  double update(double sourceSec, double fpgaSec) {
+    double observedOffset = fpgaSec - sourceSec;
+    if (Double.isNaN(offsetSec)) {
+      offsetSec = observedOffset;
+    } else {
+      offsetSec += leakSecPerSec * Math.max(0.0, fpgaSec - lastFpgaSec);
+      offsetSec = Math.min(offsetSec, observedOffset);
+    }
+    lastFpgaSec = fpgaSec;
+    return observedOffset - offsetSec;
+  }
+
+  /** Converts a timestamp on the other clock to FPGA time, in seconds. */
+  double toFpga(double sourceSec) {
+    return sourceSec + offsetSec;
+  }
+
+  /** Returns the estimated FPGA time minus other clock time, or NaN before any observation. */
+  double getOffsetSec() {
+    return offsetSec;
+  }
+}
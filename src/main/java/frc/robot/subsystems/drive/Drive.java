@@ -41,11 +41,11 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants;
 import frc.robot.Constants.Mode;
+import frc.robot.RobotState;
 import frc.robot.generated.TunerConstants;
+import frc.robot.util.AllocationCounter;
 import frc.robot.util.LocalADStarAK;
 import frc.robot.util.LoggedTunableNumber;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import lombok.Getter;
 import org.littletonrobotics.junction.AutoLogOutput;
@@ -82,7 +82,6 @@ public class Drive extends SubsystemBase {
               1),
           getModuleTranslations());
 
-  static final Lock odometryLock = new ReentrantLock();
   private final GyroIO gyroIO;
   private final GyroIOInputsAutoLogged gyroInputs = new GyroIOInputsAutoLogged();
   private final Module[] modules = new Module[4]; // FL, FR, BL, BR
@@ -101,6 +100,22 @@ public class Drive extends SubsystemBase {
       };
   private SwerveDrivePoseEstimator poseEstimator =
       new SwerveDrivePoseEstimator(kinematics, rawGyroRotation, lastModulePositions, Pose2d.kZero);
+  private double lastOdometryTimestamp = Double.NaN;
+  // Reused by each odometry sample; the pose estimator copies what it keeps
+  private final SwerveModulePosition[] samplePositions = new SwerveModulePosition[4];
+  private final SwerveModulePosition[] sampleDeltas =
+      new SwerveModulePosition[] {
+        new SwerveModulePosition(),
+        new SwerveModulePosition(),
+        new SwerveModulePosition(),
+        new SwerveModulePosition()
+      };
+
+  // Runs pose estimation on the odometry thread at the full odometry rate instead of replaying the
+  // samples on the main loop. Only used on the real robot, since the result can't be replayed.
+  private static final boolean useThreadedPoseEstimator = false;
+  private final ThreadedPoseEstimator threadedPoseEstimator;
+  private final double[] threadedEstimate = new double[7];
 
   // 5892
   private final LoggedTunableNumber driveKPTunableNumber =
@@ -136,7 +151,11 @@ public class Drive extends SubsystemBase {
     // Usage reporting for swerve template
     HAL.report(tResourceType.kResourceType_RobotDrive, tInstances.kRobotDriveSwerve_AdvantageKit);
 
-    // Start odometry thread
+    // Start odometry thread, with pose estimation on it if enabled
+    threadedPoseEstimator =
+        useThreadedPoseEstimator && Constants.currentMode == Mode.REAL
+            ? new ThreadedPoseEstimator(modules, gyroIO)
+            : null;
     PhoenixOdometryThread.getInstance().start();
 
     // Configure AutoBuilder for PathPlanner
@@ -183,13 +202,14 @@ public class Drive extends SubsystemBase {
         driveKSTunableNumber,
         driveKVTunableNumber);
 
-    odometryLock.lock(); // Prevents odometry updates while reading data
+    // Take the odometry frames published since the last cycle; the IOs below all read these
+    long odometryStartBytes = AllocationCounter.getCurrentThreadAllocatedBytes();
+    PhoenixOdometryThread.getInstance().poll();
     gyroIO.updateInputs(gyroInputs);
     Logger.processInputs("Drive/Gyro", gyroInputs);
     for (var module : modules) {
       module.periodic();
     }
-    odometryLock.unlock();
 
     // Stop moving when disabled
     if (DriverStation.isDisabled()) {
@@ -205,36 +225,86 @@ public class Drive extends SubsystemBase {
     }
 
     // Update odometry
-    double[] sampleTimestamps =
-        modules[0].getOdometryTimestamps(); // All signals are sampled together
-    int sampleCount = sampleTimestamps.length;
-    for (int i = 0; i < sampleCount; i++) {
-      // Read wheel positions and deltas from each module
-      SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
-      SwerveModulePosition[] moduleDeltas = new SwerveModulePosition[4];
-      for (int moduleIndex = 0; moduleIndex < 4; moduleIndex++) {
-        modulePositions[moduleIndex] = modules[moduleIndex].getOdometryPositions()[i];
-        moduleDeltas[moduleIndex] =
-            new SwerveModulePosition(
-                modulePositions[moduleIndex].distanceMeters
-                    - lastModulePositions[moduleIndex].distanceMeters,
-                modulePositions[moduleIndex].angle);
-        lastModulePositions[moduleIndex] = modulePositions[moduleIndex];
+    if (threadedPoseEstimator != null) {
+      // The odometry thread already applied every frame; record each frame's estimate
+      threadedPoseEstimator.setGyroConnected(gyroInputs.connected);
+      Logger.recordOutput(
+          "Drive/ThreadedHistorySamples",
+          threadedPoseEstimator.drainHistoryTo(RobotState.getInstance().getPoseHistory()));
+      Logger.recordOutput(
+          "Drive/ThreadedHistoryOverflows", threadedPoseEstimator.getHistoryOverflowCount());
+    } else {
+      // Measured velocity for the history: the wheel velocities and gyro rate the motors and gyro
+      // report, rather than a finite difference over one noisy ~4 ms odometry step
+      ChassisSpeeds measuredSpeeds = getChassisSpeeds();
+      double measuredOmega =
+          gyroInputs.connected
+              ? gyroInputs.yawVelocityRadPerSec
+              : measuredSpeeds.omegaRadiansPerSecond;
+      double[] sampleTimestamps =
+          modules[0].getOdometryTimestamps(); // All signals are sampled together
+      int sampleCount = sampleTimestamps.length;
+      for (int i = 0; i < sampleCount; i++) {
+        // Read wheel positions and deltas from each module
+        for (int moduleIndex = 0; moduleIndex < 4; moduleIndex++) {
+          SwerveModulePosition position = modules[moduleIndex].getOdometryPositions()[i];
+          SwerveModulePosition lastPosition = lastModulePositions[moduleIndex];
+          samplePositions[moduleIndex] = position;
+          sampleDeltas[moduleIndex].distanceMeters =
+              position.distanceMeters - lastPosition.distanceMeters;
+          sampleDeltas[moduleIndex].angle = position.angle;
+          lastPosition.distanceMeters = position.distanceMeters;
+          lastPosition.angle = position.angle;
+        }
+
+        // Update gyro angle
+        Twist2d twist = kinematics.toTwist2d(sampleDeltas);
+        if (gyroInputs.connected) {
+          // Use the real gyro angle
+          rawGyroRotation = gyroInputs.odometryYawPositions[i];
+        } else {
+          // Use the angle delta from the kinematics and module deltas
+          rawGyroRotation = rawGyroRotation.plus(new Rotation2d(twist.dtheta));
+        }
+
+        // Apply update
+        poseEstimator.updateWithTime(sampleTimestamps[i], rawGyroRotation, samplePositions);
+
+        // Record the pose and measured velocity at this sample for latency compensation
+        double dt = sampleTimestamps[i] - lastOdometryTimestamp;
+        lastOdometryTimestamp = sampleTimestamps[i];
+        if (dt > 0.0) {
+          Pose2d pose = poseEstimator.getEstimatedPosition();
+          double cos = pose.getRotation().getCos();
+          double sin = pose.getRotation().getSin();
+          double vx = measuredSpeeds.vxMetersPerSecond;
+          double vy = measuredSpeeds.vyMetersPerSecond;
+          RobotState.getInstance()
+              .getPoseHistory()
+              .add(
+                  sampleTimestamps[i],
+                  pose.getX(),
+                  pose.getY(),
+                  pose.getRotation().getRadians(),
+                  vx * cos - vy * sin,
+                  vx * sin + vy * cos,
+                  measuredOmega);
+        }
       }
+    }
+    Logger.recordOutput(
+        "Drive/OdometryAllocatedBytes",
+        AllocationCounter.getCurrentThreadAllocatedBytes() - odometryStartBytes);
 
-      // Update gyro angle
-      if (gyroInputs.connected) {
-        // Use the real gyro angle
-        rawGyroRotation = gyroInputs.odometryYawPositions[i];
-      } else {
-        // Use the angle delta from the kinematics and module deltas
-        Twist2d twist = kinematics.toTwist2d(moduleDeltas);
-        rawGyroRotation = rawGyroRotation.plus(new Rotation2d(twist.dtheta));
-      }
+    // Publish the latest estimate for consumers that don't need the history
+    RobotState.getInstance().setRobotPosition(getPose());
+    RobotState.getInstance().setRobotRelativeVelocity(getChassisSpeeds());
 
-      // Apply update
-      poseEstimator.updateWithTime(sampleTimestamps[i], rawGyroRotation, modulePositions);
-    }
+    PhoenixOdometryThread odometryThread = PhoenixOdometryThread.getInstance();
+    odometryThread.logStats("Drive/OdometryThread");
+    Logger.recordOutput("Drive/OdometryClockOffsetSec", odometryThread.getClockOffsetSec());
+    Logger.recordOutput("Drive/OdometryTimestampJitterSec", odometryThread.getTimestampJitterSec());
+    Logger.recordOutput("Drive/OdometryAveragingErrorSec", odometryThread.getAveragingErrorSec());
 
     // Update gyro alert
     gyroDisconnectedAlert.set(!gyroInputs.connected && Constants.currentMode != Mode.SIM);
@@ -367,6 +437,11 @@ public class Drive extends SubsystemBase {
   /** Returns the current odometry pose. */
   @AutoLogOutput(key = "Odometry/Robot")
   public Pose2d getPose() {
+    if (threadedPoseEstimator != null) {
+      threadedPoseEstimator.read(threadedEstimate);
+      return new Pose2d(
+          threadedEstimate[1], threadedEstimate[2], new Rotation2d(threadedEstimate[3]));
+    }
     return poseEstimator.getEstimatedPosition();
   }
 
@@ -377,7 +452,12 @@ public class Drive extends SubsystemBase {
 
   /** Resets the current odometry pose. */
   public void setPose(Pose2d pose) {
-    poseEstimator.resetPosition(rawGyroRotation, getModulePositions(), pose);
+    if (threadedPoseEstimator != null) {
+      threadedPoseEstimator.resetPose(pose);
+    } else {
+      poseEstimator.resetPosition(rawGyroRotation, getModulePositions(), pose);
+    }
+    RobotState.getInstance().getPoseHistory().clear();
   }
 
   /** Adds a new timestamped vision measurement. */
@@ -385,6 +465,11 @@ public class Drive extends SubsystemBase {
       Pose2d visionRobotPoseMeters,
       double timestampSeconds,
       Matrix<N3, N1> visionMeasurementStdDevs) {
+    if (threadedPoseEstimator != null) {
+      threadedPoseEstimator.addVisionMeasurement(
+          visionRobotPoseMeters, timestampSeconds, visionMeasurementStdDevs);
+      return;
+    }
     poseEstimator.addVisionMeasurement(
         visionRobotPoseMeters, timestampSeconds, visionMeasurementStdDevs);
   }
@@ -21,4 +21,12 @@ public interface GyroIO {
   }
 
   public default void updateInputs(GyroIOInputs inputs) {}
+
+  /**
+   * Returns the yaw in radians from a raw odometry frame, or NaN if this IO doesn't publish
+   * odometry frames. Called from the odometry thread.
+   */
+  public default double getOdometryYawRad(double[] frame) {
+    return Double.NaN;
+  }
 }
@@ -11,17 +11,14 @@ import com.studica.frc.AHRS;
 import com.studica.frc.AHRS.NavXComType;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
-import java.util.Queue;
 
 /** IO implementation for NavX. */
 public class GyroIONavX implements GyroIO {
   private final AHRS navX = new AHRS(NavXComType.kMXP_SPI, (byte) Drive.ODOMETRY_FREQUENCY);
-  private final Queue<Double> yawPositionQueue;
-  private final Queue<Double> yawTimestampQueue;
+  private final int yawPositionColumn;
 
   public GyroIONavX() {
-    yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
-    yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(navX::getYaw);
+    yawPositionColumn = PhoenixOdometryThread.getInstance().registerSignal(navX::getYaw);
   }
 
   @Override
@@ -30,13 +27,19 @@ public class GyroIONavX implements GyroIO {
     inputs.yawPosition = Rotation2d.fromDegrees(-navX.getYaw());
     inputs.yawVelocityRadPerSec = Units.degreesToRadians(-navX.getRawGyroZ());
 
-    inputs.odometryYawTimestamps =
-        yawTimestampQueue.stream().mapToDouble((Double value) -> value).toArray();
-    inputs.odometryYawPositions =
-        yawPositionQueue.stream()
-            .map((Double value) -> Rotation2d.fromDegrees(-value))
-            .toArray(Rotation2d[]::new);
-    yawTimestampQueue.clear();
-    yawPositionQueue.clear();
+    PhoenixOdometryThread odometry = PhoenixOdometryThread.getInstance();
+    int sampleCount = odometry.getSampleCount();
+    inputs.odometryYawTimestamps = new double[sampleCount];
+    inputs.odometryYawPositions = new Rotation2d[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      inputs.odometryYawTimestamps[i] = odometry.getTimestamp(i);
+      inputs.odometryYawPositions[i] =
+          Rotation2d.fromDegrees(-odometry.getValue(i, yawPositionColumn));
+    }
+  }
+
+  @Override
+  public double getOdometryYawRad(double[] frame) {
+    return Units.degreesToRadians(-PhoenixOdometryThread.getFrameValue(frame, yawPositionColumn));
   }
 }
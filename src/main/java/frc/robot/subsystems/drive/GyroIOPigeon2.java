@@ -16,16 +16,15 @@ import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
 import frc.robot.generated.TunerConstants;
+import frc.robot.util.CANSignalBudget.Priority;
 import frc.robot.util.PhoenixUtil;
-import java.util.Queue;
 
 /** IO implementation for Pigeon 2. */
 public class GyroIOPigeon2 implements GyroIO {
   private final Pigeon2 pigeon =
       new Pigeon2(TunerConstants.DrivetrainConstants.Pigeon2Id, TunerConstants.kCANBus);
   private final StatusSignal<Angle> yaw = pigeon.getYaw();
-  private final Queue<Double> yawPositionQueue;
-  private final Queue<Double> yawTimestampQueue;
+  private final int yawPositionColumn;
   private final StatusSignal<AngularVelocity> yawVelocity = pigeon.getAngularVelocityZWorld();
 
   public GyroIOPigeon2() {
@@ -36,13 +35,12 @@ public class GyroIOPigeon2 implements GyroIO {
     }
 
     pigeon.getConfigurator().setYaw(0.0);
-    yaw.setUpdateFrequency(Drive.ODOMETRY_FREQUENCY);
-    yawVelocity.setUpdateFrequency(50.0);
     // 5892 Phoenix optimize
-    PhoenixUtil.registerSignals(true, yaw, yawVelocity);
+    PhoenixUtil.registerSignals(
+        TunerConstants.kCANBus, pigeon, Drive.ODOMETRY_FREQUENCY, Priority.HIGH, yaw);
+    PhoenixUtil.registerSignals(TunerConstants.kCANBus, pigeon, 50.0, Priority.NORMAL, yawVelocity);
     pigeon.optimizeBusUtilization();
-    yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
-    yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(yaw.clone());
+    yawPositionColumn = PhoenixOdometryThread.getInstance().registerSignal(yaw.clone());
   }
 
   @Override
@@ -52,13 +50,19 @@ public class GyroIOPigeon2 implements GyroIO {
     inputs.yawPosition = Rotation2d.fromDegrees(yaw.getValueAsDouble());
     inputs.yawVelocityRadPerSec = Units.degreesToRadians(yawVelocity.getValueAsDouble());
 
-    inputs.odometryYawTimestamps =
-        yawTimestampQueue.stream().mapToDouble((Double value) -> value).toArray();
-    inputs.odometryYawPositions =
-        yawPositionQueue.stream()
-            .map((Double value) -> Rotation2d.fromDegrees(value))
-            .toArray(Rotation2d[]::new);
-    yawTimestampQueue.clear();
-    yawPositionQueue.clear();
+    PhoenixOdometryThread odometry = PhoenixOdometryThread.getInstance();
+    int sampleCount = odometry.getSampleCount();
+    inputs.odometryYawTimestamps = new double[sampleCount];
+    inputs.odometryYawPositions = new Rotation2d[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      inputs.odometryYawTimestamps[i] = odometry.getSignalTimestamp(i, yawPositionColumn);
+      inputs.odometryYawPositions[i] =
+          Rotation2d.fromDegrees(odometry.getValue(i, yawPositionColumn));
+    }
+  }
+
+  @Override
+  public double getOdometryYawRad(double[] frame) {
+    return Units.degreesToRadians(PhoenixOdometryThread.getFrameValue(frame, yawPositionColumn));
   }
 }
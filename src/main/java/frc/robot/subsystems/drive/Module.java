@@ -30,7 +30,9 @@ public class Module {
   private final Alert driveDisconnectedAlert;
   private final Alert turnDisconnectedAlert;
   private final Alert turnEncoderDisconnectedAlert;
+  // Reused every cycle and only grown when a cycle has more samples than any before it
   private SwerveModulePosition[] odometryPositions = new SwerveModulePosition[] {};
+  private int odometrySampleCount = 0;
 
   // 5892
   private final LoggedNetworkBoolean moduleDisable;
@@ -82,11 +84,19 @@ public class Module {
 
     // Calculate positions for odometry
     int sampleCount = inputs.odometryTimestamps.length; // All signals are sampled together
-    odometryPositions = new SwerveModulePosition[sampleCount];
+    if (odometryPositions.length < sampleCount) {
+      SwerveModulePosition[] grown = new SwerveModulePosition[sampleCount];
+      System.arraycopy(odometryPositions, 0, grown, 0, odometryPositions.length);
+      for (int i = odometryPositions.length; i < sampleCount; i++) {
+        grown[i] = new SwerveModulePosition();
+      }
+      odometryPositions = grown;
+    }
+    odometrySampleCount = sampleCount;
     for (int i = 0; i < sampleCount; i++) {
-      double positionMeters = inputs.odometryDrivePositionsRad[i] * constants.WheelRadius;
-      Rotation2d angle = inputs.odometryTurnPositions[i];
-      odometryPositions[i] = new SwerveModulePosition(positionMeters, angle);
+      odometryPositions[i].distanceMeters =
+          inputs.odometryDrivePositionsRad[i] * constants.WheelRadius;
+      odometryPositions[i].angle = inputs.odometryTurnPositions[i];
     }
 
     // Update alerts
@@ -148,11 +158,25 @@ public class Module {
     return new SwerveModuleState(getVelocityMetersPerSec(), getAngle());
   }
 
-  /** Returns the module positions received this cycle. */
+  /**
+   * Returns the module positions received this cycle. The array and its elements are reused every
+   * cycle, and only the first {@link #getOdometrySampleCount()} entries are valid.
+   */
   public SwerveModulePosition[] getOdometryPositions() {
     return odometryPositions;
   }
 
+  /** Returns the number of samples received this cycle. */
+  public int getOdometrySampleCount() {
+    return odometrySampleCount;
+  }
+
+  /** Reads this module's position from a raw odometry frame. Called from the odometry thread. */
+  public void readOdometryFrame(double[] frame, SwerveModulePosition position) {
+    position.distanceMeters = io.getOdometryDrivePositionRad(frame) * constants.WheelRadius;
+    position.angle = new Rotation2d(io.getOdometryTurnPositionRad(frame));
+  }
+
   /** Returns the timestamps of the samples received this cycle. */
   public double[] getOdometryTimestamps() {
     return inputs.odometryTimestamps;
@@ -37,6 +37,22 @@ public interface ModuleIO {
   /** Updates the set of loggable inputs. */
   public default void updateInputs(ModuleIOInputs inputs) {}
 
+  /**
+   * Returns the drive position in radians from a raw odometry frame, or NaN if this IO doesn't
+   * publish odometry frames. Called from the odometry thread.
+   */
+  public default double getOdometryDrivePositionRad(double[] frame) {
+    return Double.NaN;
+  }
+
+  /**
+   * Returns the turn position in radians from a raw odometry frame, or NaN if this IO doesn't
+   * publish odometry frames. Called from the odometry thread.
+   */
+  public default double getOdometryTurnPositionRad(double[] frame) {
+    return Double.NaN;
+  }
+
   /** Run the drive motor at the specified open loop value. */
   public default void setDriveOpenLoop(double output) {}
 
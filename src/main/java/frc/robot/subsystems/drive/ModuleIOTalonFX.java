@@ -10,6 +10,7 @@ package frc.robot.subsystems.drive;
 import static frc.robot.util.PhoenixUtil.*;
 
 import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.CANcoderConfiguration;
 import com.ctre.phoenix6.configs.Slot0Configs;
@@ -37,8 +38,8 @@ import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.Temperature;
 import edu.wpi.first.units.measure.Voltage;
 import frc.robot.generated.TunerConstants;
+import frc.robot.util.CANSignalBudget.Priority;
 import frc.robot.util.PhoenixUtil;
-import java.util.Queue;
 
 /**
  * Module IO implementation for Talon FX drive motor controller, Talon FX turn motor controller, and
@@ -68,12 +69,9 @@ public class ModuleIOTalonFX implements ModuleIO {
   private final VelocityTorqueCurrentFOC velocityTorqueCurrentRequest =
       new VelocityTorqueCurrentFOC(0.0);
 
-  // Timestamp inputs from Phoenix thread
-  private final Queue<Double> timestampQueue;
-
   // Inputs from drive motor
   private final StatusSignal<Angle> drivePosition;
-  private final Queue<Double> drivePositionQueue;
+  private final int drivePositionColumn;
   private final StatusSignal<AngularVelocity> driveVelocity;
   private final StatusSignal<Voltage> driveAppliedVolts;
   private final StatusSignal<Current> driveCurrent;
@@ -82,7 +80,7 @@ public class ModuleIOTalonFX implements ModuleIO {
   // Inputs from turn motor
   private final StatusSignal<Angle> turnAbsolutePosition;
   private final StatusSignal<Angle> turnPosition;
-  private final Queue<Double> turnPositionQueue;
+  private final int turnPositionColumn;
   private final StatusSignal<AngularVelocity> turnVelocity;
   private final StatusSignal<Voltage> turnAppliedVolts;
   private final StatusSignal<Current> turnCurrent;
@@ -164,12 +162,9 @@ public class ModuleIOTalonFX implements ModuleIO {
             : SensorDirectionValue.CounterClockwise_Positive;
     cancoder.getConfigurator().apply(cancoderConfig);
 
-    // Create timestamp queue
-    timestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
-
     // Create drive status signals
     drivePosition = driveTalon.getPosition();
-    drivePositionQueue = PhoenixOdometryThread.getInstance().registerSignal(drivePosition.clone());
+    drivePositionColumn = PhoenixOdometryThread.getInstance().registerSignal(drivePosition.clone());
     driveVelocity = driveTalon.getVelocity();
     driveAppliedVolts = driveTalon.getMotorVoltage();
     driveCurrent = driveTalon.getStatorCurrent();
@@ -178,50 +173,38 @@ public class ModuleIOTalonFX implements ModuleIO {
     // Create turn status signals
     turnAbsolutePosition = cancoder.getAbsolutePosition();
     turnPosition = turnTalon.getPosition();
-    turnPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(turnPosition.clone());
+    turnPositionColumn = PhoenixOdometryThread.getInstance().registerSignal(turnPosition.clone());
     turnVelocity = turnTalon.getVelocity();
     turnAppliedVolts = turnTalon.getMotorVoltage();
     turnCurrent = turnTalon.getStatorCurrent();
     turnTemp = turnTalon.getDeviceTemp();
 
     // Configure periodic frames
-    BaseStatusSignal.setUpdateFrequencyForAll(
-        Drive.ODOMETRY_FREQUENCY, drivePosition, turnPosition);
-    BaseStatusSignal.setUpdateFrequencyForAll(
-        50.0,
-        driveVelocity,
-        driveAppliedVolts,
-        driveCurrent,
-        driveTemp,
-        turnAbsolutePosition,
-        turnVelocity,
-        turnAppliedVolts,
-        turnCurrent,
-        turnTemp);
     // 5892: Optimize CAN
+    CANBus canBus = TunerConstants.kCANBus;
+    PhoenixUtil.registerSignals(
+        canBus, driveTalon, Drive.ODOMETRY_FREQUENCY, Priority.HIGH, drivePosition);
     PhoenixUtil.registerSignals(
-        TunerConstants.kCANBus,
-        driveVelocity,
-        driveAppliedVolts,
-        driveCurrent,
-        driveTemp,
-        turnAbsolutePosition,
-        turnVelocity,
-        turnAppliedVolts,
-        turnCurrent,
-        turnTemp);
+        canBus, turnTalon, Drive.ODOMETRY_FREQUENCY, Priority.HIGH, turnPosition);
+    PhoenixUtil.registerSignals(
+        canBus, driveTalon, 50.0, Priority.NORMAL, driveVelocity, driveAppliedVolts, driveCurrent);
+    PhoenixUtil.registerSignals(
+        canBus, turnTalon, 50.0, Priority.NORMAL, turnVelocity, turnAppliedVolts, turnCurrent);
+    PhoenixUtil.registerSignals(canBus, cancoder, 50.0, Priority.NORMAL, turnAbsolutePosition);
+    PhoenixUtil.registerSignals(canBus, driveTalon, 50.0, Priority.LOW, driveTemp);
+    PhoenixUtil.registerSignals(canBus, turnTalon, 50.0, Priority.LOW, turnTemp);
     ParentDevice.optimizeBusUtilizationForAll(driveTalon, turnTalon);
   }
 
   @Override
   public void updateInputs(ModuleIOInputs inputs) {
-    // Refresh all signals
+    // All signals were refreshed together by PhoenixUtil.refreshAll()
     // 5892 : Optimize CAN
     var driveStatus =
         BaseStatusSignal.isAllGood(drivePosition, driveVelocity, driveAppliedVolts, driveCurrent);
     var turnStatus =
         BaseStatusSignal.isAllGood(turnPosition, turnVelocity, turnAppliedVolts, turnCurrent);
-    var turnEncoderStatus = BaseStatusSignal.isAllGood(turnAbsolutePosition.refresh());
+    var turnEncoderStatus = BaseStatusSignal.isAllGood(turnAbsolutePosition);
 
     // Update drive inputs
     inputs.driveConnected = driveConnectedDebounce.calculate(driveStatus);
@@ -242,19 +225,29 @@ public class ModuleIOTalonFX implements ModuleIO {
     inputs.turnTempC = turnTemp.getValueAsDouble();
 
     // Update odometry inputs
-    inputs.odometryTimestamps =
-        timestampQueue.stream().mapToDouble((Double value) -> value).toArray();
-    inputs.odometryDrivePositionsRad =
-        drivePositionQueue.stream()
-            .mapToDouble((Double value) -> Units.rotationsToRadians(value))
-            .toArray();
-    inputs.odometryTurnPositions =
-        turnPositionQueue.stream()
-            .map((Double value) -> Rotation2d.fromRotations(value))
-            .toArray(Rotation2d[]::new);
-    timestampQueue.clear();
-    drivePositionQueue.clear();
-    turnPositionQueue.clear();
+    PhoenixOdometryThread odometry = PhoenixOdometryThread.getInstance();
+    int sampleCount = odometry.getSampleCount();
+    inputs.odometryTimestamps = new double[sampleCount];
+    inputs.odometryDrivePositionsRad = new double[sampleCount];
+    inputs.odometryTurnPositions = new Rotation2d[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      inputs.odometryTimestamps[i] = odometry.getTimestamp(i);
+      inputs.odometryDrivePositionsRad[i] =
+          Units.rotationsToRadians(odometry.getValue(i, drivePositionColumn));
+      inputs.odometryTurnPositions[i] =
+          Rotation2d.fromRotations(odometry.getValue(i, turnPositionColumn));
+    }
+  }
+
+  @Override
+  public double getOdometryDrivePositionRad(double[] frame) {
+    return Units.rotationsToRadians(
+        PhoenixOdometryThread.getFrameValue(frame, drivePositionColumn));
+  }
+
+  @Override
+  public double getOdometryTurnPositionRad(double[] frame) {
+    return Units.rotationsToRadians(PhoenixOdometryThread.getFrameValue(frame, turnPositionColumn));
   }
 
   @Override
@@ -0,0 +1,107 @@
+package frc.robot.subsystems.drive;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer ring of odometry frames, used to hand samples from
+ * {@link PhoenixOdometryThread} to the main loop.
+ *
+ * <p>A frame is one sample instant: a timestamp followed by a (value, timestamp) pair per
+ * registered signal, all read in the same pass of the odometry thread, so signals can never be
+ * misaligned across modules.
+ * Frames are stored flat in one preallocated array. The producer never blocks; when the ring is
+ * full the new frame is dropped and counted as an overflow. The consumer copies every waiting frame
+ * into a snapshot with {@link #poll()}, which stays stable until the next poll.
+ */
+class OdometryFrameBuffer {
+  private final int stride;
+  private final int mask;
+  private final double[] frames;
+  private final double[] snapshot;
+  private int snapshotCount = 0;
+
+  // Total frames ever written and read. Ring slots are these values masked.
+  private final AtomicLong writeCount = new AtomicLong();
+  private final AtomicLong readCount = new AtomicLong();
+  private final AtomicLong overflowCount = new AtomicLong();
+
+  /**
+   * Create an empty buffer.
+   *
+   * @param width number of signals per frame
+   * @param capacity minimum number of frames held; rounded up to a power of two
+   */
+  OdometryFrameBuffer(int width, int capacity) {
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    stride = 2 * width + 1;
+    mask = size - 1;
+    frames = new double[size * stride];
+    snapshot = new double[size * stride];
+  }
+
+  /** Returns the number of signals per frame. */
+  int getWidth() {
+    return (stride - 1) / 2;
+  }
+
+  /**
+   * Producer only. Copies a frame into the ring, or drops it and counts an overflow if the ring is
+   * full.
+   *
+   * @param frame the frame timestamp at index 0, then a value and timestamp for each of the {@link
+   *     #getWidth()} signals
+   */
+  boolean offer(double[] frame) {
+    long write = writeCount.get();
+    if (write - readCount.get() > mask) {
+      overflowCount.lazySet(overflowCount.get() + 1);
+      return false;
+    }
+    System.arraycopy(frame, 0, frames, ((int) write & mask) * stride, stride);
+    // Release: the frame is visible before the consumer sees the new count.
+    writeCount.lazySet(write + 1);
+    return true;
+  }
+
+  /**
+   * Consumer only. Moves every waiting frame, oldest first, into the snapshot read by {@link
+   * #getTimestamp(int)} and {@link #getValue(int, int)}.
+   *
+   * @return the number of frames in the snapshot
+   */
+  int poll() {
+    long read = readCount.get();
+    int count = (int) (writeCount.get() - read);
+    for (int i = 0; i < count; i++) {
+      System.arraycopy(frames, ((int) (read + i) & mask) * stride, snapshot, i * stride, stride);
+    }
+    readCount.lazySet(read + count);
+    snapshotCount = count;
+    return count;
+  }
+
+  /** Returns the number of frames in the snapshot. */
+  int getSampleCount() {
+    return snapshotCount;
+  }
+
+  /** Returns the timestamp of a frame in the snapshot. */
+  double getTimestamp(int sample) {
+    return snapshot[sample * stride];
+  }
+
+  /** Returns one signal value of a frame in the snapshot. */
+  double getValue(int sample, int column) {
+    return snapshot[sample * stride + 1 + 2 * column];
+  }
+
+  /** Returns the timestamp of one signal of a frame in the snapshot. */
+  double getSignalTimestamp(int sample, int column) {
+    return snapshot[sample * stride + 2 + 2 * column];
+  }
+
+  /** Returns the number of frames dropped because the ring was full. */
+  long getOverflowCount() {
+    return overflowCount.get();
+  }
+}
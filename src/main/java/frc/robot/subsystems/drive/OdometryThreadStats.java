@@ -0,0 +1,62 @@
+package frc.robot.subsystems.drive;
+
+import frc.robot.util.AtomicHistogram;
+import java.util.concurrent.atomic.AtomicLong;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Health telemetry for {@link PhoenixOdometryThread}. The thread records into lock-free counters
+ * and histograms; the main loop logs a snapshot of them each cycle.
+ *
+ * <p>All times are in milliseconds. The histograms share one set of bucket bounds, logged
+ * alongside them, and hold counts since startup.
+ */
+class OdometryThreadStats {
+  private static final double[] bucketUpperBoundsMs = {
+    0.05, 0.1, 0.25, 0.5, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 8.0, 10.0, 20.0
+  };
+  // A sample period this many times the nominal period counts as an overrun
+  private static final double overrunFactor = 1.5;
+
+  /** Time between the starts of consecutive frames. */
+  final AtomicHistogram periodMs = new AtomicHistogram(bucketUpperBoundsMs);
+
+  /** Time spent blocked in waitForAll (or sleeping and refreshing without CAN FD). */
+  final AtomicHistogram waitMs = new AtomicHistogram(bucketUpperBoundsMs);
+
+  /** Time from the end of the wait until the frame is published and its listeners have run. */
+  final AtomicHistogram processingMs = new AtomicHistogram(bucketUpperBoundsMs);
+
+  /** Waits that returned an error status, usually a timeout. */
+  final AtomicLong waitErrors = new AtomicLong();
+
+  /** Waits cut short by an InterruptedException. */
+  final AtomicLong interrupts = new AtomicLong();
+
+  /** Sample periods longer than {@code overrunFactor} times the nominal period. */
+  final AtomicLong overruns = new AtomicLong();
+
+  /** Records the period since the previous frame and counts it as an overrun if too long. */
+  void recordPeriod(double periodMs) {
+    this.periodMs.record(periodMs);
+    if (periodMs > overrunFactor * 1000.0 / Drive.ODOMETRY_FREQUENCY) {
+      overruns.incrementAndGet();
+    }
+  }
+
+  /** Logs a snapshot under {@code prefix}. Call from the main loop. */
+  void log(String prefix, long droppedFrames) {
+    Logger.recordOutput(prefix + "/HistogramBoundsMs", bucketUpperBoundsMs);
+    Logger.recordOutput(prefix + "/PeriodHistogram", periodMs.getCounts());
+    Logger.recordOutput(prefix + "/WaitHistogram", waitMs.getCounts());
+    Logger.recordOutput(prefix + "/ProcessingHistogram", processingMs.getCounts());
+    Logger.recordOutput(prefix + "/MaxPeriodMs", periodMs.getAndResetMax());
+    Logger.recordOutput(prefix + "/MaxWaitMs", waitMs.getAndResetMax());
+    Logger.recordOutput(prefix + "/MaxProcessingMs", processingMs.getAndResetMax());
+    Logger.recordOutput(prefix + "/Frames", processingMs.getTotalCount());
+    Logger.recordOutput(prefix + "/WaitErrors", waitErrors.get());
+    Logger.recordOutput(prefix + "/Interrupts", interrupts.get());
+    Logger.recordOutput(prefix + "/Overruns", overruns.get());
+    Logger.recordOutput(prefix + "/DroppedFrames", droppedFrames);
+  }
+}
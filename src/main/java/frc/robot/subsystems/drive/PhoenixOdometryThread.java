@@ -8,34 +8,59 @@
 package frc.robot.subsystems.drive;
 
 import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.Timestamp;
+import com.ctre.phoenix6.Timestamp.TimestampSource;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.wpilibj.RobotController;
 import frc.robot.generated.TunerConstants;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.function.DoubleSupplier;
 
 /**
- * Provides an interface for asynchronously reading high-frequency measurements to a set of queues.
+ * Provides an interface for asynchronously reading high-frequency measurements into a ring of
+ * odometry frames.
  *
  * <p>This version is intended for Phoenix 6 devices on both the RIO and CANivore buses. When using
  * a CANivore, the thread uses the "waitForAll" blocking method to enable more consistent sampling.
  * This also allows Phoenix Pro users to benefit from lower latency between devices using CANivore
  * time synchronization.
+ *
+ * <p>Each registered signal is assigned a column. Every pass of the thread publishes one frame
+ * holding the sample timestamp and the value of every column, so all modules and the gyro are
+ * always read at the same instants. The main loop calls {@link #poll()} once per cycle and then
+ * reads the frames without ever blocking the thread. All signals must be registered before the
+ * thread starts.
+ *
+ * <p>Every Phoenix signal also carries its own timestamp: the time Phoenix reports for the sample,
+ * mapped onto the FPGA timebase by a {@link ClockOffsetEstimator} per timestamp source. The frame
+ * timestamp is the mean of these, rather than the receive time minus the average reported latency.
+ * Generic signals have no hardware timestamp and use the receive time.
  */
 public class PhoenixOdometryThread extends Thread {
-  private final Lock signalsLock =
-      new ReentrantLock(); // Prevents conflicts when registering signals
   private BaseStatusSignal[] phoenixSignals = new BaseStatusSignal[0];
+  private int[] phoenixColumns = new int[0];
   private final List<DoubleSupplier> genericSignals = new ArrayList<>();
-  private final List<Queue<Double>> phoenixQueues = new ArrayList<>();
-  private final List<Queue<Double>> genericQueues = new ArrayList<>();
-  private final List<Queue<Double>> timestampQueues = new ArrayList<>();
+  private final List<Integer> genericColumns = new ArrayList<>();
+  private final List<Consumer<double[]>> frameListeners = new ArrayList<>();
+  private int columnCount = 0;
+  private boolean started = false;
+
+  // Frames buffered between main loop cycles; ~128 ms at 250 Hz before frames are dropped.
+  private static final int frameCapacity = 32;
+  private OdometryFrameBuffer frames = new OdometryFrameBuffer(0, 1);
+
+  // Timestamp alignment, indexed by TimestampSource ordinal, and its latest telemetry
+  private final ClockOffsetEstimator[] clockOffsetEstimators =
+      new ClockOffsetEstimator[TimestampSource.values().length];
+  private volatile double clockOffsetSec = Double.NaN;
+  private volatile double timestampJitterSec = 0.0;
+  private volatile double averagingErrorSec = 0.0;
+
+  private final OdometryThreadStats stats = new OdometryThreadStats();
 
   private static boolean isCANFD = TunerConstants.kCANBus.isNetworkFD();
   private static PhoenixOdometryThread instance = null;
@@ -50,109 +75,215 @@ public class PhoenixOdometryThread extends Thread {
   private PhoenixOdometryThread() {
     setName("PhoenixOdometryThread");
     setDaemon(true);
+    for (int i = 0; i < clockOffsetEstimators.length; i++) {
+      clockOffsetEstimators[i] = new ClockOffsetEstimator();
+    }
   }
 
   @Override
   public void start() {
-    if (timestampQueues.size() > 0) {
+    started = true;
+    frames = new OdometryFrameBuffer(columnCount, frameCapacity);
+    if (columnCount > 0) {
       super.start();
     }
   }
 
-  /** Registers a Phoenix signal to be read from the thread. */
-  public Queue<Double> registerSignal(StatusSignal<Angle> signal) {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    signalsLock.lock();
-    Drive.odometryLock.lock();
-    try {
-      BaseStatusSignal[] newSignals = new BaseStatusSignal[phoenixSignals.length + 1];
-      System.arraycopy(phoenixSignals, 0, newSignals, 0, phoenixSignals.length);
-      newSignals[phoenixSignals.length] = signal;
-      phoenixSignals = newSignals;
-      phoenixQueues.add(queue);
-    } finally {
-      signalsLock.unlock();
-      Drive.odometryLock.unlock();
-    }
-    return queue;
-  }
-
-  /** Registers a generic signal to be read from the thread. */
-  public Queue<Double> registerSignal(DoubleSupplier signal) {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    signalsLock.lock();
-    Drive.odometryLock.lock();
-    try {
-      genericSignals.add(signal);
-      genericQueues.add(queue);
-    } finally {
-      signalsLock.unlock();
-      Drive.odometryLock.unlock();
-    }
-    return queue;
+  /**
+   * Registers a Phoenix signal to be read from the thread.
+   *
+   * @return the column of the signal in each frame
+   */
+  public int registerSignal(StatusSignal<Angle> signal) {
+    checkNotStarted();
+    BaseStatusSignal[] newSignals = new BaseStatusSignal[phoenixSignals.length + 1];
+    System.arraycopy(phoenixSignals, 0, newSignals, 0, phoenixSignals.length);
+    newSignals[phoenixSignals.length] = signal;
+    int[] newColumns = new int[phoenixColumns.length + 1];
+    System.arraycopy(phoenixColumns, 0, newColumns, 0, phoenixColumns.length);
+    newColumns[phoenixColumns.length] = columnCount;
+    phoenixSignals = newSignals;
+    phoenixColumns = newColumns;
+    return columnCount++;
+  }
+
+  /**
+   * Registers a generic signal to be read from the thread.
+   *
+   * @return the column of the signal in each frame
+   */
+  public int registerSignal(DoubleSupplier signal) {
+    checkNotStarted();
+    genericSignals.add(signal);
+    genericColumns.add(columnCount);
+    return columnCount++;
+  }
+
+  /**
+   * Adds a listener that is called on the odometry thread with every frame as it is published. The
+   * frame array is reused, so listeners must not keep it; read it with {@link
+   * #getFrameTimestamp(double[])} and {@link #getFrameValue(double[], int)}.
+   */
+  public void addFrameListener(Consumer<double[]> listener) {
+    checkNotStarted();
+    frameListeners.add(listener);
+  }
+
+  /** Returns the FPGA timestamp of a frame passed to a frame listener, in seconds. */
+  public static double getFrameTimestamp(double[] frame) {
+    return frame[0];
   }
 
-  /** Returns a new queue that returns timestamp values for each sample. */
-  public Queue<Double> makeTimestampQueue() {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    Drive.odometryLock.lock();
-    try {
-      timestampQueues.add(queue);
-    } finally {
-      Drive.odometryLock.unlock();
+  /** Returns the raw value of a registered signal in a frame passed to a frame listener. */
+  public static double getFrameValue(double[] frame, int column) {
+    return frame[1 + 2 * column];
+  }
+
+  private void checkNotStarted() {
+    if (started) {
+      throw new IllegalStateException(
+          "Odometry signals must be registered before the odometry thread starts");
     }
-    return queue;
+  }
+
+  /**
+   * Takes every frame published since the last call. Call once per main loop cycle, before any IO
+   * reads the frames.
+   *
+   * @return the number of frames taken
+   */
+  public int poll() {
+    return frames.poll();
+  }
+
+  /** Returns the number of frames taken by the last {@link #poll()}. */
+  public int getSampleCount() {
+    return frames.getSampleCount();
+  }
+
+  /** Returns the FPGA timestamp of a frame taken by the last {@link #poll()}, in seconds. */
+  public double getTimestamp(int sample) {
+    return frames.getTimestamp(sample);
+  }
+
+  /**
+   * Returns the FPGA timestamp of one signal's sample in a frame taken by the last {@link #poll()},
+   * in seconds.
+   */
+  public double getSignalTimestamp(int sample, int column) {
+    return frames.getSignalTimestamp(sample, column);
+  }
+
+  /** Returns the raw value of a registered signal in a frame taken by the last {@link #poll()}. */
+  public double getValue(int sample, int column) {
+    return frames.getValue(sample, column);
+  }
+
+  /** Logs a snapshot of the thread's health telemetry under {@code prefix}. */
+  public void logStats(String prefix) {
+    stats.log(prefix, frames.getOverflowCount());
+  }
+
+  /** Returns the estimated FPGA minus Phoenix clock offset of the first Phoenix signal's source. */
+  public double getClockOffsetSec() {
+    return clockOffsetSec;
+  }
+
+  /**
+   * Returns the RMS delivery delay of the latest frame's signals beyond the smallest seen, which is
+   * the jitter that stamping samples on receipt would have added.
+   */
+  public double getTimestampJitterSec() {
+    return timestampJitterSec;
+  }
+
+  /**
+   * Returns the RMS difference in the latest frame between the old timestamp (receive time minus
+   * average latency) and each signal's aligned timestamp.
+   */
+  public double getAveragingErrorSec() {
+    return averagingErrorSec;
   }
 
   @Override
   public void run() {
+    double[] frame = new double[2 * columnCount + 1];
+    long lastWaitEndNs = 0;
     while (true) {
       // Wait for updates from all signals
-      signalsLock.lock();
+      long waitStartNs = System.nanoTime();
+      StatusCode status = StatusCode.OK;
       try {
         if (isCANFD && phoenixSignals.length > 0) {
-          BaseStatusSignal.waitForAll(2.0 / Drive.ODOMETRY_FREQUENCY, phoenixSignals);
+          status = BaseStatusSignal.waitForAll(2.0 / Drive.ODOMETRY_FREQUENCY, phoenixSignals);
         } else {
           // "waitForAll" does not support blocking on multiple signals with a bus
           // that is not CAN FD, regardless of Pro licensing. No reasoning for this
           // behavior is provided by the documentation.
           Thread.sleep((long) (1000.0 / Drive.ODOMETRY_FREQUENCY));
-          if (phoenixSignals.length > 0) BaseStatusSignal.refreshAll(phoenixSignals);
+          if (phoenixSignals.length > 0) status = BaseStatusSignal.refreshAll(phoenixSignals);
         }
       } catch (InterruptedException e) {
-        e.printStackTrace();
-      } finally {
-        signalsLock.unlock();
+        stats.interrupts.incrementAndGet();
+      }
+      long waitEndNs = System.nanoTime();
+      if (!status.isOK()) {
+        stats.waitErrors.incrementAndGet();
+      }
+      stats.waitMs.record((waitEndNs - waitStartNs) / 1e6);
+      if (lastWaitEndNs != 0) {
+        stats.recordPeriod((waitEndNs - lastWaitEndNs) / 1e6);
       }
+      lastWaitEndNs = waitEndNs;
 
-      // Save new data to queues
-      Drive.odometryLock.lock();
-      try {
-        // Sample timestamp is current FPGA time minus average CAN latency
-        // Default timestamps from Phoenix are NOT compatible with
-        // FPGA timestamps, this solution is imperfect but close
-        double timestamp = RobotController.getFPGATime() / 1e6;
-        double totalLatency = 0.0;
-        for (BaseStatusSignal signal : phoenixSignals) {
-          totalLatency += signal.getTimestamp().getLatency();
-        }
-        if (phoenixSignals.length > 0) {
-          timestamp -= totalLatency / phoenixSignals.length;
+      // Default timestamps from Phoenix are NOT compatible with FPGA timestamps, so map each
+      // signal's timestamp through the clock offset estimate for its source
+      double receiveTimestamp = RobotController.getFPGATime() / 1e6;
+      double timestampSum = 0.0;
+      double totalLatency = 0.0;
+      double residualSquaredSum = 0.0;
+      for (int i = 0; i < phoenixSignals.length; i++) {
+        Timestamp stamp = phoenixSignals[i].getTimestamp();
+        double signalTimestamp = receiveTimestamp - stamp.getLatency();
+        if (stamp.isValid()) {
+          ClockOffsetEstimator estimator = clockOffsetEstimators[stamp.getSource().ordinal()];
+          double residual = estimator.update(stamp.getTime(), receiveTimestamp);
+          residualSquaredSum += residual * residual;
+          signalTimestamp = estimator.toFpga(stamp.getTime());
+          if (i == 0) {
+            clockOffsetSec = estimator.getOffsetSec();
+          }
         }
+        frame[1 + 2 * phoenixColumns[i]] = phoenixSignals[i].getValueAsDouble();
+        frame[2 + 2 * phoenixColumns[i]] = signalTimestamp;
+        timestampSum += signalTimestamp;
+        totalLatency += stamp.getLatency();
+      }
+      for (int i = 0; i < genericSignals.size(); i++) {
+        frame[1 + 2 * genericColumns.get(i)] = genericSignals.get(i).getAsDouble();
+        frame[2 + 2 * genericColumns.get(i)] = receiveTimestamp;
+      }
 
-        // Add new samples to queues
+      // Frame timestamp is the mean aligned timestamp of the Phoenix signals
+      frame[0] = receiveTimestamp;
+      if (phoenixSignals.length > 0) {
+        frame[0] = timestampSum / phoenixSignals.length;
+        double averagedTimestamp = receiveTimestamp - totalLatency / phoenixSignals.length;
+        double errorSquaredSum = 0.0;
         for (int i = 0; i < phoenixSignals.length; i++) {
-          phoenixQueues.get(i).offer(phoenixSignals[i].getValueAsDouble());
-        }
-        for (int i = 0; i < genericSignals.size(); i++) {
-          genericQueues.get(i).offer(genericSignals.get(i).getAsDouble());
-        }
-        for (int i = 0; i < timestampQueues.size(); i++) {
-          timestampQueues.get(i).offer(timestamp);
+          double error = averagedTimestamp - frame[2 + 2 * phoenixColumns[i]];
+          errorSquaredSum += error * error;
         }
-      } finally {
-        Drive.odometryLock.unlock();
+        timestampJitterSec = Math.sqrt(residualSquaredSum / phoenixSignals.length);
+        averagingErrorSec = Math.sqrt(errorSquaredSum / phoenixSignals.length);
+      }
+
+      // Publish the frame
+      frames.offer(frame);
+      for (int i = 0; i < frameListeners.size(); i++) {
+        frameListeners.get(i).accept(frame);
       }
+      stats.processingMs.record((System.nanoTime() - waitEndNs) / 1e6);
     }
   }
 }
@@ -0,0 +1,86 @@
+package frc.robot.subsystems.drive;
+
+import frc.robot.util.PoseHistoryBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer ring of pose estimates, used to hand every frame's
+ * estimate from {@link ThreadedPoseEstimator} on the odometry thread to the main loop's {@link
+ * PoseHistoryBuffer}.
+ *
+ * <p>An estimate is a timestamp, x, y and theta, then the field-relative vx, vy and omega, stored
+ * flat in one preallocated array like {@link OdometryFrameBuffer}. The producer never blocks; when
+ * the ring is full the new estimate is dropped and counted as an overflow.
+ */
+class PoseEstimateBuffer {
+  private static final int stride = 7;
+
+  private final int mask;
+  private final double[] estimates;
+
+  // Total estimates ever written and read. Ring slots are these values masked.
+  private final AtomicLong writeCount = new AtomicLong();
+  private final AtomicLong readCount = new AtomicLong();
+  private final AtomicLong overflowCount = new AtomicLong();
+
+  /**
+   * Create an empty buffer.
+   *
+   * @param capacity minimum number of estimates held; rounded up to a power of two
+   */
+  PoseEstimateBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    mask = size - 1;
+    estimates = new double[size * stride];
+  }
+
+  /** Producer only. Copies an estimate into the ring, or drops it if the ring is full. */
+  boolean offer(
+      double timestamp, double x, double y, double theta, double vx, double vy, double omega) {
+    long write = writeCount.get();
+    if (write - readCount.get() > mask) {
+      overflowCount.lazySet(overflowCount.get() + 1);
+      return false;
+    }
+    int offset = ((int) write & mask) * stride;
+    estimates[offset] = timestamp;
+    estimates[offset + 1] = x;
+    estimates[offset + 2] = y;
+    estimates[offset + 3] = theta;
+    estimates[offset + 4] = vx;
+    estimates[offset + 5] = vy;
+    estimates[offset + 6] = omega;
+    // Release: the estimate is visible before the consumer sees the new count.
+    writeCount.lazySet(write + 1);
+    return true;
+  }
+
+  /**
+   * Consumer only. Adds every waiting estimate, oldest first, to a pose history.
+   *
+   * @return the number of estimates added
+   */
+  int drainTo(PoseHistoryBuffer history) {
+    long read = readCount.get();
+    int count = (int) (writeCount.get() - read);
+    for (int i = 0; i < count; i++) {
+      int offset = ((int) (read + i) & mask) * stride;
+      history.add(
+          estimates[offset],
+          estimates[offset + 1],
+          estimates[offset + 2],
+          estimates[offset + 3],
+          estimates[offset + 4],
+          estimates[offset + 5],
+          estimates[offset + 6]);
+    }
+    // Release the slots only after they've been copied out.
+    readCount.lazySet(read + count);
+    return count;
+  }
+
+  /** Returns the number of estimates dropped because the ring was full. */
+  long getOverflowCount() {
+    return overflowCount.get();
+  }
+}
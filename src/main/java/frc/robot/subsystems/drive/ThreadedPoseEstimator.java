@@ -0,0 +1,219 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.util.PoseHistoryBuffer;
+import java.lang.invoke.VarHandle;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a {@link SwerveDrivePoseEstimator} on {@link PhoenixOdometryThread}, applying each odometry
+ * frame as it arrives instead of replaying a batch of frames on the main loop.
+ *
+ * <p>The latest pose, field-relative velocity and timestamp are published through a seqlock, so
+ * main loop readers never block the odometry thread and never see a half-written estimate. Every
+ * frame's estimate is also queued in a {@link PoseEstimateBuffer} for the main loop to copy into
+ * the pose history, so latency compensation sees each frame rather than one per loop. Vision
+ * measurements and pose resets are handed to the odometry thread through queues and applied before
+ * the next frame.
+ *
+ * <p>The estimate is computed outside of AdvantageKit inputs, so it can't be reproduced in replay.
+ */
+class ThreadedPoseEstimator {
+  private record VisionMeasurement(
+      Pose2d visionRobotPoseMeters,
+      double timestampSeconds,
+      Matrix<N3, N1> visionMeasurementStdDevs) {}
+
+  // Frames carry no velocity signals, so the per-frame finite difference is low-pass filtered to
+  // keep timestamp jitter from showing up as velocity noise
+  private static final double velocityFilterTimeConstantSec = 0.02;
+
+  private final Module[] modules;
+  private final GyroIO gyroIO;
+  // Separate from Drive's kinematics, which the main loop mutates when setting module states
+  private final SwerveDriveKinematics kinematics =
+      new SwerveDriveKinematics(Drive.getModuleTranslations());
+  private final SwerveDrivePoseEstimator poseEstimator;
+  private final Queue<VisionMeasurement> visionMeasurements = new ConcurrentLinkedQueue<>();
+  private final AtomicReference<Pose2d> pendingReset = new AtomicReference<>();
+  private volatile boolean gyroConnected = false;
+  // About 0.1 s of frames at 250 Hz, several main loops' worth
+  private final PoseEstimateBuffer history = new PoseEstimateBuffer(32);
+
+  // Odometry thread state
+  private final SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
+  private final SwerveModulePosition[] lastModulePositions = new SwerveModulePosition[4];
+  private final SwerveModulePosition[] moduleDeltas = new SwerveModulePosition[4];
+  private Rotation2d rawGyroRotation = Rotation2d.kZero;
+  private double lastTimestamp = Double.NaN;
+  // Low-pass filtered finite-difference velocity, published with each estimate
+  private double filteredVx = 0.0;
+  private double filteredVy = 0.0;
+  private double filteredOmega = 0.0;
+
+  // Seqlock over the published fields; odd while the odometry thread is writing them
+  private final AtomicLong sequence = new AtomicLong();
+  private double publishedTimestamp = Double.NaN;
+  private double publishedX = 0.0;
+  private double publishedY = 0.0;
+  private double publishedTheta = 0.0;
+  private double publishedVx = 0.0;
+  private double publishedVy = 0.0;
+  private double publishedOmega = 0.0;
+
+  ThreadedPoseEstimator(Module[] modules, GyroIO gyroIO) {
+    this.modules = modules;
+    this.gyroIO = gyroIO;
+    for (int i = 0; i < 4; i++) {
+      modulePositions[i] = new SwerveModulePosition();
+      lastModulePositions[i] = new SwerveModulePosition();
+      moduleDeltas[i] = new SwerveModulePosition();
+    }
+    poseEstimator =
+        new SwerveDrivePoseEstimator(
+            kinematics, rawGyroRotation, lastModulePositions, Pose2d.kZero);
+    PhoenixOdometryThread.getInstance().addFrameListener(this::update);
+  }
+
+  /** Sets whether the gyro is connected, from the main loop's gyro inputs. */
+  void setGyroConnected(boolean connected) {
+    gyroConnected = connected;
+  }
+
+  /** Resets the estimate to a pose before the next odometry frame. */
+  void resetPose(Pose2d pose) {
+    pendingReset.set(pose);
+  }
+
+  /** Queues a vision measurement to be applied before the next odometry frame. */
+  void addVisionMeasurement(
+      Pose2d visionRobotPoseMeters,
+      double timestampSeconds,
+      Matrix<N3, N1> visionMeasurementStdDevs) {
+    visionMeasurements.add(
+        new VisionMeasurement(visionRobotPoseMeters, timestampSeconds, visionMeasurementStdDevs));
+  }
+
+  /**
+   * Copies the latest published estimate into {@code out} as timestamp, x, y, theta, then the
+   * field-relative vx, vy and omega.
+   *
+   * @return false if no frame has been processed yet
+   */
+  boolean read(double[] out) {
+    while (true) {
+      long start = sequence.get();
+      if ((start & 1) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      out[0] = publishedTimestamp;
+      out[1] = publishedX;
+      out[2] = publishedY;
+      out[3] = publishedTheta;
+      out[4] = publishedVx;
+      out[5] = publishedVy;
+      out[6] = publishedOmega;
+      VarHandle.loadLoadFence();
+      if (sequence.get() == start) {
+        return !Double.isNaN(out[0]);
+      }
+    }
+  }
+
+  /**
+   * Main loop only. Adds the estimate of every frame processed since the last call, oldest first,
+   * to a pose history.
+   *
+   * @return the number of estimates added
+   */
+  int drainHistoryTo(PoseHistoryBuffer poseHistory) {
+    return history.drainTo(poseHistory);
+  }
+
+  /** Returns the number of estimates dropped because the main loop fell behind. */
+  long getHistoryOverflowCount() {
+    return history.getOverflowCount();
+  }
+
+  // Called on the odometry thread with each frame
+  private void update(double[] frame) {
+    Pose2d reset = pendingReset.getAndSet(null);
+    if (reset != null) {
+      poseEstimator.resetPosition(rawGyroRotation, lastModulePositions, reset);
+    }
+    VisionMeasurement measurement;
+    while ((measurement = visionMeasurements.poll()) != null) {
+      poseEstimator.addVisionMeasurement(
+          measurement.visionRobotPoseMeters(),
+          measurement.timestampSeconds(),
+          measurement.visionMeasurementStdDevs());
+    }
+
+    // Read wheel positions and deltas from each module
+    for (int i = 0; i < 4; i++) {
+      modules[i].readOdometryFrame(frame, modulePositions[i]);
+      moduleDeltas[i].distanceMeters =
+          modulePositions[i].distanceMeters - lastModulePositions[i].distanceMeters;
+      moduleDeltas[i].angle = modulePositions[i].angle;
+      lastModulePositions[i].distanceMeters = modulePositions[i].distanceMeters;
+      lastModulePositions[i].angle = modulePositions[i].angle;
+    }
+
+    // Update gyro angle, falling back to kinematics like Drive does
+    Twist2d twist = kinematics.toTwist2d(moduleDeltas);
+    Rotation2d previousGyroRotation = rawGyroRotation;
+    double yawRad = gyroIO.getOdometryYawRad(frame);
+    if (gyroConnected && !Double.isNaN(yawRad)) {
+      rawGyroRotation = new Rotation2d(yawRad);
+    } else {
+      rawGyroRotation = rawGyroRotation.plus(new Rotation2d(twist.dtheta));
+    }
+
+    double timestamp = PhoenixOdometryThread.getFrameTimestamp(frame);
+    poseEstimator.updateWithTime(timestamp, rawGyroRotation, modulePositions);
+    Pose2d pose = poseEstimator.getEstimatedPosition();
+
+    // Filtered odometry velocity, rotated into the field frame
+    double dt = timestamp - lastTimestamp;
+    lastTimestamp = timestamp;
+    if (dt > 0.0) {
+      double cos = pose.getRotation().getCos();
+      double sin = pose.getRotation().getSin();
+      double alpha = dt / (velocityFilterTimeConstantSec + dt);
+      filteredVx += alpha * ((twist.dx * cos - twist.dy * sin) / dt - filteredVx);
+      filteredVy += alpha * ((twist.dx * sin + twist.dy * cos) / dt - filteredVy);
+      filteredOmega +=
+          alpha * (rawGyroRotation.minus(previousGyroRotation).getRadians() / dt - filteredOmega);
+    }
+    double vx = filteredVx;
+    double vy = filteredVy;
+    double omega = filteredOmega;
+
+    // Publish
+    long start = sequence.get();
+    sequence.set(start + 1);
+    VarHandle.storeStoreFence();
+    publishedTimestamp = timestamp;
+    publishedX = pose.getX();
+    publishedY = pose.getY();
+    publishedTheta = pose.getRotation().getRadians();
+    publishedVx = vx;
+    publishedVy = vy;
+    publishedOmega = omega;
+    sequence.set(start + 2);
+    history.offer(
+        timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians(), vx, vy, omega);
+  }
+}
@@ -24,6 +24,8 @@ public class Shooter {
   @Getter private final Hood hood;
 
   public Shooter(CANBus bus) {
+    // Dynamic Motion Magic is only available on a CANivore
+    boolean canFD = bus.isNetworkFD();
     switch (Constants.currentMode) {
       case REAL -> {
         // Configure right Talon as leader and add the left Talon as a CTRE follower.
@@ -41,7 +43,8 @@ public class Shooter {
             new Hood(
                 new PhoenixTalonFX(10, bus, "Hood"),
                 new HardwareDIO("HoodReverse", 1),
-                new HardwareDIO("HoodForward", 2));
+                new HardwareDIO("HoodForward", 2),
+                canFD);
       }
 
       case SIM -> {
@@ -61,7 +64,8 @@ public class Shooter {
             new Hood(
                 new TalonFXSimpleMotorSim(10, bus, "Hood", 0.0017154536, 1.3),
                 SimDIO.fromNT("HoodReverse"),
-                SimDIO.fromNT("HoodForward"));
+                SimDIO.fromNT("HoodForward"),
+                canFD);
       }
 
       default -> {
@@ -73,7 +77,8 @@ public class Shooter {
             new Hood(
                 new NoOppTalonFX("Hood", 0),
                 new HardwareDIO("HoodReverse", 1),
-                new HardwareDIO("HoodForward", 2));
+                new HardwareDIO("HoodForward", 2),
+                canFD);
       }
     }
   }
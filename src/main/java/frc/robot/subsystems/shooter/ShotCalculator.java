@@ -4,18 +4,23 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Twist2d;
-import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
-import edu.wpi.first.math.interpolation.InterpolatingTreeMap;
-import edu.wpi.first.math.interpolation.InverseInterpolator;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.Timer;
 import frc.robot.RobotState;
 import frc.robot.util.AllianceFlipUtil;
 import frc.robot.util.FieldConstants;
 import frc.robot.util.FieldConstants.LinesHorizontal;
 import frc.robot.util.LoggedTunableNumber;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import frc.robot.util.PoseHistoryBuffer;
+import frc.robot.util.UniformLookupTable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.littletonrobotics.junction.AutoLogOutputManager;
 import org.littletonrobotics.junction.Logger;
@@ -41,42 +46,97 @@ public class ShotCalculator {
   public record ShotParameters(
       boolean isValid, Rotation2d robotYaw, Rotation2d hoodAngle, double flywheelSpeedRPM) {}
 
-  // One entry in the rolling shot history: where the robot was, what goal was targeted, and what
-  // parameters were computed. Stored only for valid shots.
-  private record RecentShotSample(
-      double timestampSec,
-      Goal goal,
-      Translation2d robotTranslation,
-      double distanceMeters,
-      Rotation2d hoodAngle,
-      double flywheelSpeedRPM) {}
+  /**
+   * Mutable, reusable result of the shot solve. Used internally by calculateShot() and by {@link
+   * #solveShot} for offline sweeps, where each thread owns its own instance.
+   */
+  @Getter
+  public static final class ShotSolution {
+    private double lookaheadX;
+    private double lookaheadY;
+    private double lookaheadDistance;
+    private double lookaheadResidual;
+    private int lookaheadIterations;
+    private boolean lookaheadClosedForm;
+    private boolean valid;
+    private double robotYawRad;
+    private double hoodAngleDeg;
+    private double flywheelSpeedRPM;
+  }
 
+  // Snapshot for the current robot loop, keyed by the loop timestamp. update() computes it after
+  // odometry and vision have run and before commands run, so every consumer in a loop sees the
+  // same result.
   private ShotParameters latestShot = null;
-  // Bounded to ~100 entries (HISTORY_WINDOW / SAMPLE_PERIOD). Each entry is a small record.
-  private final Deque<RecentShotSample> recentShotSamples = new ArrayDeque<>();
+  private long latestShotTimestampUs = -1;
+  private boolean updating = false;
+  // Snapshots computed by calculateShot() outside update(), i.e. read before update() in a loop
+  private int cacheMissesThisLoop = 0;
+  // Rolling history of valid shots: where the robot was, what goal was targeted, and what
+  // parameters were computed. One ring per goal, spatially indexed so lookups stay cheap.
+  private final ShotHistory recentShotHistory =
+      new ShotHistory(
+          Goal.values().length,
+          recentShotHistoryCapacity,
+          recentShotCellSizeMeters,
+          FieldConstants.fieldLength,
+          FieldConstants.fieldWidth);
   private double lastRecentShotSampleSec = Double.NEGATIVE_INFINITY;
+  // Last loop's projected pose, to log how much the projection jumps between loops
+  private double lastProjectedX = Double.NaN;
+  private double lastProjectedY = Double.NaN;
+
+  // Optional precomputed field-wide solutions; null when disabled or the file failed to load.
+  private final ShotSolutionMap shotSolutionMap =
+      useShotSolutionMap ? loadShotSolutionMap() : null;
+
+  // Reused output of solveLookahead() so the per-loop solve does not allocate.
+  private final ShotSolution solution = new ShotSolution();
 
   public static boolean manualMode = false;
   public static double manualHoodAngleDeg = 0;
   public static double manualFlywheelSpeed = 0;
   public static double manualRobotYawDeg = 0;
 
+  // Use the precomputed field-wide map in the deploy directory (see ShotSolutionMap) for the
+  // stationary hood/flywheel/TOF solution instead of the 1-D distance curves.
+  private static final boolean useShotSolutionMap = false;
+  // Solved distance table from BallisticTableGenerator in the deploy directory, used if present.
+  private static final String ballisticTablePath = "shooter/shot_table.csv";
+
   private static final double minDistance = 1.3;
   private static final double maxDistance = 5.8;
-  private static final double phaseDelay = 0.03;
   private static final double validDistanceEpsilon = 1e-6;
-  // Keep the last 10 s of shot samples so data is warm when the driver presses shoot.
-  private static final double recentShotHistoryWindowSec = 10.0;
-  // Save a new sample at most every 100 ms — limits writes to 10 Hz and caps history to ~100
-  // entries.
-  private static final double recentShotSamplePeriodSec = 0.1;
-
-  private static final InterpolatingTreeMap<Double, Rotation2d> hoodAngleMap =
-      new InterpolatingTreeMap<>(InverseInterpolator.forDouble(), Rotation2d::interpolate);
-  private static final InterpolatingDoubleTreeMap flywheelSpeedMap =
-      new InterpolatingDoubleTreeMap();
-  private static final InterpolatingDoubleTreeMap timeOfFlightMap =
-      new InterpolatingDoubleTreeMap();
+  // Linear time-of-flight model: tof = tofBaseSec + tofSlopeSecPerMeter * (d - minDistance).
+  private static final double tofBaseSec = 0.82;
+  private static final double tofSlopeSecPerMeter = 0.085;
+  // The lookahead solve stops once the distance moves less than this between iterations.
+  private static final double lookaheadToleranceMeters = 1e-4;
+  private static final int maxLookaheadIterations = 20;
+  // Keep the last 30 s of shot samples so data is warm when the driver presses shoot.
+  private static final double recentShotHistoryWindowSec = 30.0;
+  // Save a new sample at most once per robot loop (50 Hz). The slack keeps loop-to-loop timing
+  // jitter from skipping every other sample.
+  private static final double recentShotSamplePeriodSec = 0.02;
+  private static final double recentShotSampleSlackSec = 0.005;
+  // Enough slots per goal to hold the whole window even if one goal is targeted throughout.
+  private static final int recentShotHistoryCapacity =
+      (int) Math.ceil(
+              recentShotHistoryWindowSec / (recentShotSamplePeriodSec - recentShotSampleSlackSec))
+          + 1;
+  // Spatial grid cell size for the history index. A query visits the cells within the pose band.
+  private static final double recentShotCellSizeMeters = 0.5;
+
+  // Lookup curves share one uniform 0.1 m distance grid, so each lookup is an index + lerp.
+  private static final double tableStepMeters = 0.1;
+  private static final int tableSize =
+      (int) Math.round((maxDistance - minDistance) / tableStepMeters) + 1;
+  private static final UniformLookupTable hoodAngleDegTable =
+      new UniformLookupTable(minDistance, maxDistance, tableSize);
+  private static final UniformLookupTable flywheelSpeedTable =
+      new UniformLookupTable(minDistance, maxDistance, tableSize);
+  private static final UniformLookupTable timeOfFlightTable =
+      new UniformLookupTable(minDistance, maxDistance, tableSize);
 
   /*
    * Tunable parameters for real-time adjustment
@@ -113,6 +173,15 @@ public class ShotCalculator {
   private static final LoggedTunableNumber tofScale =
       new LoggedTunableNumber("ShotTuning/TimeOfFlightScale", 1.0);
 
+  // Measured actuation latency: time from commanding a new setpoint until the mechanism settles
+  // on it. The shot pose is projected forward by the slower of the two.
+  // ↑ latency → aims further along the robot's path (use if moving shots trail the target)
+  private static final LoggedTunableNumber hoodLatencySec =
+      new LoggedTunableNumber("ShotTuning/HoodLatencySec", 0.03);
+
+  private static final LoggedTunableNumber flywheelLatencySec =
+      new LoggedTunableNumber("ShotTuning/FlywheelLatencySec", 0.03);
+
   // Flywheel RPM at closest shot distance (minDistance)
   private static final LoggedTunableNumber flywheelMinRPM =
       new LoggedTunableNumber("ShotTuning/FlywheelMinRPM", 1000.0);
@@ -142,6 +211,10 @@ public class ShotCalculator {
   private static final LoggedTunableNumber hoodMaxAngleDeg =
       new LoggedTunableNumber("ShotTuning/HoodMaxAngleDeg", 68.0);
 
+  // Solved (distance, hood, RPM, TOF) rows from BallisticTableGenerator, as columns. When present
+  // they replace the hand-shaped curves below; null if the deploy file is missing or invalid.
+  private static final double[][] ballisticTable = loadBallisticTable();
+
   static {
     rebuildTables();
     AutoLogOutputManager.addObject(getInstance());
@@ -149,14 +222,23 @@ public class ShotCalculator {
 
   /** Rebuilds the interpolation tables from the current tunable range values. */
   private static void rebuildTables() {
-    hoodAngleMap.clear();
-    flywheelSpeedMap.clear();
-    timeOfFlightMap.clear();
+    if (ballisticTable != null) {
+      // The solved table is fixed; only the offsets and slopes apply on top of it.
+      for (int i = 0; i < tableSize; i++) {
+        double d = hoodAngleDegTable.getX(i);
+        hoodAngleDegTable.set(i, interpolateColumn(ballisticTable[1], d));
+        flywheelSpeedTable.set(i, interpolateColumn(ballisticTable[2], d));
+        timeOfFlightTable.set(i, interpolateColumn(ballisticTable[3], d));
+      }
+      return;
+    }
+
     double distRange = maxDistance - minDistance;
     double speedPreference = Math.max(0.0, Math.min(1.0, lowSpeedPreference.get()));
     double hoodShapeExponent = 1.0 - (0.4 * speedPreference);
     double flywheelShapeExponent = 1.0 + (0.7 * speedPreference);
-    for (double d = minDistance; d <= maxDistance; d += 0.1) {
+    for (int i = 0; i < tableSize; i++) {
+      double d = hoodAngleDegTable.getX(i);
       double t = (d - minDistance) / distRange;
       // Increase hood a little sooner and delay RPM growth to prefer lower wheel speed.
       double hoodT = Math.pow(t, hoodShapeExponent);
@@ -165,15 +247,41 @@ public class ShotCalculator {
           hoodMinAngleDeg.get() + hoodT * (hoodMaxAngleDeg.get() - hoodMinAngleDeg.get());
       double flywheel =
           flywheelMinRPM.get() + flywheelT * (flywheelMaxRPM.get() - flywheelMinRPM.get());
-      double tof = 0.82 + (d - 1.3) * 0.085;
-      hoodAngleMap.put(d, Rotation2d.fromDegrees(hoodDeg));
-      flywheelSpeedMap.put(d, flywheel);
-      timeOfFlightMap.put(d, tof);
+      double tof = tofBaseSec + (d - minDistance) * tofSlopeSecPerMeter;
+      hoodAngleDegTable.set(i, hoodDeg);
+      flywheelSpeedTable.set(i, flywheel);
+      timeOfFlightTable.set(i, tof);
+    }
+  }
+
+  /**
+   * Computes this loop's shot snapshot. Call once per loop after the drive and vision subsystems
+   * have updated {@link RobotState} and before any command runs; {@link ShotCalculatorUpdater}
+   * does this on the robot.
+   */
+  public void update() {
+    // Logged here so the count covers the whole previous loop; it should always be 0.
+    Logger.recordOutput("ShotCalculator/CacheMissesPerLoop", cacheMissesThisLoop);
+    cacheMissesThisLoop = 0;
+    latestShotTimestampUs = -1;
+    updating = true;
+    try {
+      calculateShot();
+    } finally {
+      updating = false;
     }
   }
 
+  /**
+   * Returns this loop's shot snapshot. It is only computed here if {@link #update()} has not run
+   * for the current loop yet, which counts as a cache miss; update() then recomputes it from
+   * fresh state.
+   */
   public ShotParameters calculateShot() {
-    if (latestShot != null) return latestShot;
+    long loopTimestampUs = Logger.getTimestamp();
+    if (latestShotTimestampUs == loopTimestampUs) return latestShot;
+    latestShotTimestampUs = loopTimestampUs;
+    if (!updating) cacheMissesThisLoop++;
 
     // Rebuild tables if any range tunable changed from the dashboard.
     LoggedTunableNumber.ifChanged(
@@ -200,65 +308,110 @@ public class ShotCalculator {
       return latestShot;
     }
 
-    Pose2d estimatedPose = RobotState.getInstance().getRobotPosition();
-    ChassisSpeeds robotRelVel = RobotState.getInstance().getRobotRelativeVelocity();
-    ChassisSpeeds robotVel =
-        ChassisSpeeds.fromRobotRelativeSpeeds(robotRelVel, estimatedPose.getRotation());
-
-    // Project pose forward to account for sensor/control delay
-    estimatedPose =
-        estimatedPose.exp(
-            new Twist2d(
-                robotRelVel.vxMetersPerSecond * phaseDelay,
-                robotRelVel.vyMetersPerSecond * phaseDelay,
-                robotRelVel.omegaRadiansPerSecond * phaseDelay));
+    // Project the pose to when the hood and flywheel will actually reach this loop's setpoints.
+    double nowSec = Timer.getFPGATimestamp();
+    double latencySec = Math.max(hoodLatencySec.get(), flywheelLatencySec.get());
+    double robotX;
+    double robotY;
+    double robotVelX;
+    double robotVelY;
+    PoseHistoryBuffer poseHistory = RobotState.getInstance().getPoseHistory();
+    boolean projectedFromHistory = poseHistory.sample(nowSec + latencySec);
+    if (projectedFromHistory) {
+      robotX = poseHistory.getSampleX();
+      robotY = poseHistory.getSampleY();
+      robotVelX = poseHistory.getSampleVx();
+      robotVelY = poseHistory.getSampleVy();
+    } else {
+      // No odometry history (e.g. offline tools): project the latest RobotState pose instead.
+      Pose2d estimatedPose = RobotState.getInstance().getRobotPosition();
+      ChassisSpeeds robotRelVel = RobotState.getInstance().getRobotRelativeVelocity();
+      ChassisSpeeds robotVel =
+          ChassisSpeeds.fromRobotRelativeSpeeds(robotRelVel, estimatedPose.getRotation());
+      estimatedPose =
+          estimatedPose.exp(
+              new Twist2d(
+                  robotRelVel.vxMetersPerSecond * latencySec,
+                  robotRelVel.vyMetersPerSecond * latencySec,
+                  robotRelVel.omegaRadiansPerSecond * latencySec));
+      robotX = estimatedPose.getX();
+      robotY = estimatedPose.getY();
+      robotVelX = robotVel.vxMetersPerSecond;
+      robotVelY = robotVel.vyMetersPerSecond;
+    }
+    Logger.recordOutput("ShotCalculator/ProjectionLatencySec", latencySec);
+    Logger.recordOutput("ShotCalculator/ProjectedFromHistory", projectedFromHistory);
+    // Mostly the distance driven in one loop; spikes mean the projection is noisy
+    if (!Double.isNaN(lastProjectedX)) {
+      Logger.recordOutput(
+          "ShotCalculator/ProjectedPoseChangeMeters",
+          Math.hypot(robotX - lastProjectedX, robotY - lastProjectedY));
+    }
+    lastProjectedX = robotX;
+    lastProjectedY = robotY;
 
     Goal currentGoal = RobotState.getInstance().updateGoal();
     Translation2d target = AllianceFlipUtil.apply(currentGoal.pose);
-    double robotToTargetDistance = target.getDistance(estimatedPose.getTranslation());
-
-    double robotVelX = robotVel.vxMetersPerSecond;
-    double robotVelY = robotVel.vyMetersPerSecond;
-
-    Pose2d lookaheadPose = estimatedPose;
-    double lookaheadDistance = robotToTargetDistance;
-
-    // Motion-compensation loop
-    for (int i = 0; i < 20; i++) {
-      double tof = timeOfFlightMap.get(lookaheadDistance) * tofScale.get();
-      double offsetX = robotVelX * tof;
-      double offsetY = robotVelY * tof;
-      lookaheadPose =
-          new Pose2d(
-              estimatedPose.getTranslation().plus(new Translation2d(offsetX, offsetY)),
-              estimatedPose.getRotation());
-      lookaheadDistance = target.getDistance(lookaheadPose.getTranslation());
-    }
+    boolean redAlliance = AllianceFlipUtil.shouldFlip();
+
+    solveLookahead(
+        robotX,
+        robotY,
+        robotVelX,
+        robotVelY,
+        target.getX(),
+        target.getY(),
+        shotSolutionMap,
+        currentGoal,
+        redAlliance,
+        solution);
+    double lookaheadX = solution.lookaheadX;
+    double lookaheadY = solution.lookaheadY;
+    double lookaheadDistance = solution.lookaheadDistance;
+    Logger.recordOutput("ShotCalculator/LookaheadIterations", solution.lookaheadIterations);
+    Logger.recordOutput("ShotCalculator/LookaheadResidual", solution.lookaheadResidual);
+    Logger.recordOutput("ShotCalculator/LookaheadClosedForm", solution.lookaheadClosedForm);
 
     // Clamp distance for lookup tables, but keep validity based on the real lookahead distance.
     double distanceClamped = Math.max(minDistance, Math.min(maxDistance, lookaheadDistance));
-    double nowSec = Timer.getFPGATimestamp();
     trimRecentShotHistory(nowSec);
 
-    Rotation2d robotYaw = target.minus(lookaheadPose.getTranslation()).getAngle();
-
-    // Base hood/flywheel values
-    double hoodDeg = hoodAngleMap.get(distanceClamped).getDegrees();
-    double flywheelSpeed = flywheelSpeedMap.get(distanceClamped);
+    Rotation2d robotYaw = new Rotation2d(target.getX() - lookaheadX, target.getY() - lookaheadY);
+
+    // Base hood/flywheel values, from the field map when it covers the lookahead position.
+    double hoodBaseDeg;
+    double flywheelBase;
+    boolean usedShotMap =
+        shotSolutionMap != null
+            && shotSolutionMap.sample(currentGoal, redAlliance, lookaheadX, lookaheadY);
+    if (usedShotMap) {
+      hoodBaseDeg = shotSolutionMap.getHoodAngleDeg();
+      flywheelBase = shotSolutionMap.getFlywheelSpeedRPM();
+    } else {
+      hoodBaseDeg = hoodAngleDegTable.get(distanceClamped);
+      flywheelBase = flywheelSpeedTable.get(distanceClamped);
+    }
+    Logger.recordOutput("ShotCalculator/UsedShotMap", usedShotMap);
+    double hoodDeg = hoodBaseDeg;
+    double flywheelSpeed = flywheelBase;
 
-    // Blend in the closest saved sample from the last 10 s.
+    // Blend in the closest saved sample from the last 30 s.
     // historyWeight is 1.0 when the robot is exactly where it was and fades to 0.0 at
     // poseBandMeters away.
     // This smooths out micro-noise between consecutive loops with almost no CPU cost.
-    RecentShotSample recentSample =
-        findRecentShotSample(currentGoal, lookaheadPose.getTranslation());
-    if (recentSample != null) {
-      double poseBandMeters = Math.max(validDistanceEpsilon, recentShotPoseBandMeters.get());
+    double poseBandMeters = Math.max(validDistanceEpsilon, recentShotPoseBandMeters.get());
+    int recentSample =
+        recentShotHistory.findNearest(
+            currentGoal.ordinal(), lookaheadX, lookaheadY, poseBandMeters);
+    if (recentSample >= 0) {
       double poseDelta =
-          recentSample.robotTranslation().getDistance(lookaheadPose.getTranslation());
+          Math.hypot(
+              recentShotHistory.getX(recentSample) - lookaheadX,
+              recentShotHistory.getY(recentSample) - lookaheadY);
       double historyWeight = 1.0 - Math.min(1.0, poseDelta / poseBandMeters);
-      hoodDeg = lerp(hoodDeg, recentSample.hoodAngle().getDegrees(), historyWeight);
-      flywheelSpeed = lerp(flywheelSpeed, recentSample.flywheelSpeedRPM(), historyWeight);
+      hoodDeg = lerp(hoodDeg, recentShotHistory.getHoodAngleDeg(recentSample), historyWeight);
+      flywheelSpeed =
+          lerp(flywheelSpeed, recentShotHistory.getFlywheelSpeedRPM(recentSample), historyWeight);
       Logger.recordOutput("ShotCalculator/HistoryWeight", historyWeight);
       Logger.recordOutput("ShotCalculator/HistoryPoseDelta", poseDelta);
     } else {
@@ -267,104 +420,328 @@ public class ShotCalculator {
     }
 
     // Apply tuning offsets
-    hoodDeg += hoodOffset.get();
-    hoodDeg += hoodDistanceSlope.get() * distanceClamped;
-
-    flywheelSpeed += flywheelOffset.get();
-    flywheelSpeed += flywheelDistanceSlope.get() * distanceClamped;
+    hoodDeg = applyHoodTuning(hoodDeg, distanceClamped);
+    flywheelSpeed = applyFlywheelTuning(flywheelSpeed, distanceClamped);
 
     Rotation2d hoodAngle = Rotation2d.fromDegrees(hoodDeg);
 
     // Validity must use the real lookahead distance (not the clamped lookup distance).
-    boolean isValid =
-        lookaheadDistance >= (minDistance - validDistanceEpsilon)
-            && lookaheadDistance <= (maxDistance + validDistanceEpsilon);
+    boolean isValid = isInRange(lookaheadDistance);
 
     latestShot = new ShotParameters(isValid, robotYaw, hoodAngle, flywheelSpeed);
 
     if (isValid) {
       saveRecentShotSample(
-          nowSec,
-          currentGoal,
-          lookaheadPose.getTranslation(),
-          distanceClamped,
-          hoodAngle,
-          flywheelSpeed);
+          nowSec, currentGoal, lookaheadX, lookaheadY, distanceClamped, hoodDeg, flywheelSpeed);
     }
 
     // Logging for dashboard tuning
     Logger.recordOutput("ShotCalculator/Distance", distanceClamped);
-    Logger.recordOutput(
-        "ShotCalculator/HoodAngleBase", hoodAngleMap.get(distanceClamped).getDegrees());
+    Logger.recordOutput("ShotCalculator/HoodAngleBase", hoodBaseDeg);
     Logger.recordOutput("ShotCalculator/HoodAngleFinal", hoodDeg);
-    Logger.recordOutput("ShotCalculator/FlywheelBase", flywheelSpeedMap.get(distanceClamped));
+    Logger.recordOutput("ShotCalculator/FlywheelBase", flywheelBase);
     Logger.recordOutput("ShotCalculator/FlywheelFinal", flywheelSpeed);
 
     return latestShot;
   }
 
-  public void clearCache() {
-    latestShot = null;
+  /**
+   * Finds where the robot will be when a shot fired now lands, so aim accounts for robot motion.
+   * Iterates lookahead = robot + velocity * tof(distance(lookahead)) until the distance settles
+   * within {@link #lookaheadToleranceMeters}. If it has not settled after {@link
+   * #maxLookaheadIterations} (only at very high speeds), falls back to the exact solution of the
+   * linear TOF model. Results are written to the lookahead fields of {@code out}.
+   *
+   * @param map field map to take the time of flight from, or null to use the distance table
+   */
+  private static void solveLookahead(
+      double robotX,
+      double robotY,
+      double velX,
+      double velY,
+      double targetX,
+      double targetY,
+      ShotSolutionMap map,
+      Goal goal,
+      boolean redAlliance,
+      ShotSolution out) {
+    double scale = tofScale.get();
+    double x = robotX;
+    double y = robotY;
+    double distance = Math.hypot(targetX - robotX, targetY - robotY);
+    double residual = Double.POSITIVE_INFINITY;
+    int iterations = 0;
+
+    while (iterations < maxLookaheadIterations && residual >= lookaheadToleranceMeters) {
+      double tof = timeOfFlightAt(map, goal, redAlliance, x, y, distance) * scale;
+      x = robotX + velX * tof;
+      y = robotY + velY * tof;
+      double nextDistance = Math.hypot(targetX - x, targetY - y);
+      residual = Math.abs(nextDistance - distance);
+      distance = nextDistance;
+      iterations++;
+    }
+
+    boolean closedForm = false;
+    // The closed form assumes the linear TOF model, so it does not apply to the field map or the
+    // solved ballistic table.
+    if (residual >= lookaheadToleranceMeters && map == null && ballisticTable == null) {
+      double exactDistance =
+          solveLookaheadClosedForm(targetX - robotX, targetY - robotY, velX * scale, velY * scale);
+      // The table clamps outside its range, so the linear model is only exact inside it.
+      if (exactDistance >= minDistance && exactDistance <= maxDistance) {
+        double tof = timeOfFlightTable.get(exactDistance) * scale;
+        x = robotX + velX * tof;
+        y = robotY + velY * tof;
+        distance = Math.hypot(targetX - x, targetY - y);
+        residual = Math.abs(distance - exactDistance);
+        closedForm = true;
+      }
+    }
+
+    out.lookaheadX = x;
+    out.lookaheadY = y;
+    out.lookaheadDistance = distance;
+    out.lookaheadResidual = residual;
+    out.lookaheadIterations = iterations;
+    out.lookaheadClosedForm = closedForm;
   }
 
-  private void clearRecentShotHistory() {
-    recentShotSamples.clear();
-    lastRecentShotSampleSec = Double.NEGATIVE_INFINITY;
-    Logger.recordOutput("ShotCalculator/RecentHistorySize", 0);
+  // Time of flight from the robot position (x, y), which is distance meters from the target.
+  private static double timeOfFlightAt(
+      ShotSolutionMap map, Goal goal, boolean redAlliance, double x, double y, double distance) {
+    if (map != null && map.sample(goal, redAlliance, x, y)) {
+      return map.getTimeOfFlightSec();
+    }
+    return timeOfFlightTable.get(distance);
   }
 
-  // Drops entries older than the history window. Called once per loop; at most a handful of
-  // removes ever happen at once because saveRecentShotSample throttles the write rate.
-  private void trimRecentShotHistory(double nowSec) {
-    while (!recentShotSamples.isEmpty()
-        && nowSec - recentShotSamples.peekFirst().timestampSec() > recentShotHistoryWindowSec) {
-      recentShotSamples.removeFirst();
+  /**
+   * Stateless, thread-safe version of the shot solve for offline sweeps. Follows calculateShot()
+   * for a robot state given directly instead of read from RobotState: projects the pose by the
+   * actuation latency, solves the moving-shot lookahead, then looks up and tunes hood and flywheel.
+   * It does not blend in shot history or use the field map, and logs nothing.
+   *
+   * @param robotX field x
+   * @param robotY field y
+   * @param headingRad robot heading
+   * @param vxRobot robot-relative x velocity
+   * @param vyRobot robot-relative y velocity
+   * @param omegaRadPerSec angular velocity
+   * @param targetX field x of the target
+   * @param targetY field y of the target
+   * @param out receives the result
+   */
+  public static void solveShot(
+      double robotX,
+      double robotY,
+      double headingRad,
+      double vxRobot,
+      double vyRobot,
+      double omegaRadPerSec,
+      double targetX,
+      double targetY,
+      ShotSolution out) {
+    // Pose2d.exp of the twist over the latency, done on primitives.
+    double latencySec = Math.max(hoodLatencySec.get(), flywheelLatencySec.get());
+    double dx = vxRobot * latencySec;
+    double dy = vyRobot * latencySec;
+    double dtheta = omegaRadPerSec * latencySec;
+    double s;
+    double c;
+    if (Math.abs(dtheta) < 1e-9) {
+      s = 1.0 - dtheta * dtheta / 6.0;
+      c = 0.5 * dtheta;
+    } else {
+      s = Math.sin(dtheta) / dtheta;
+      c = (1.0 - Math.cos(dtheta)) / dtheta;
     }
-    Logger.recordOutput("ShotCalculator/RecentHistorySize", recentShotSamples.size());
+    double cos = Math.cos(headingRad);
+    double sin = Math.sin(headingRad);
+    double localX = dx * s - dy * c;
+    double localY = dx * c + dy * s;
+    double projectedX = robotX + localX * cos - localY * sin;
+    double projectedY = robotY + localX * sin + localY * cos;
+    double velX = vxRobot * cos - vyRobot * sin;
+    double velY = vxRobot * sin + vyRobot * cos;
+
+    solveLookahead(
+        projectedX, projectedY, velX, velY, targetX, targetY, null, Goal.HUB, false, out);
+
+    double distanceClamped = Math.max(minDistance, Math.min(maxDistance, out.lookaheadDistance));
+    out.robotYawRad = Math.atan2(targetY - out.lookaheadY, targetX - out.lookaheadX);
+    out.hoodAngleDeg = applyHoodTuning(hoodAngleDegTable.get(distanceClamped), distanceClamped);
+    out.flywheelSpeedRPM =
+        applyFlywheelTuning(flywheelSpeedTable.get(distanceClamped), distanceClamped);
+    out.valid = isInRange(out.lookaheadDistance);
   }
 
-  // Linear scan over the history deque (≤100 entries) to find the spatially closest sample for
-  // the current goal. 100 distance checks per loop is negligible on the roboRIO 2.
-  private RecentShotSample findRecentShotSample(Goal goal, Translation2d robotTranslation) {
-    double poseBandMeters = Math.max(validDistanceEpsilon, recentShotPoseBandMeters.get());
-    RecentShotSample bestSample = null;
-    double bestPoseDelta = poseBandMeters;
+  private static double applyHoodTuning(double hoodDeg, double distance) {
+    return hoodDeg + hoodOffset.get() + hoodDistanceSlope.get() * distance;
+  }
 
-    for (RecentShotSample sample : recentShotSamples) {
-      if (sample.goal() != goal) {
-        continue;
-      }
+  private static double applyFlywheelTuning(double flywheelSpeed, double distance) {
+    return flywheelSpeed + flywheelOffset.get() + flywheelDistanceSlope.get() * distance;
+  }
 
-      double poseDelta = sample.robotTranslation().getDistance(robotTranslation);
-      if (poseDelta <= bestPoseDelta) {
-        bestPoseDelta = poseDelta;
-        bestSample = sample;
-      }
+  // Shots are only valid inside the tuned distance range.
+  private static boolean isInRange(double distance) {
+    return distance >= (minDistance - validDistanceEpsilon)
+        && distance <= (maxDistance + validDistanceEpsilon);
+  }
+
+  /**
+   * Exact lookahead distance for the linear TOF model. With tof(d) = c + b * d, the lookahead
+   * distance satisfies d = |E - w * d| where E = toTarget - v * c and w = v * b, which is the
+   * quadratic (1 - |w|^2) d^2 + 2 (E . w) d - |E|^2 = 0.
+   *
+   * @param toTargetX x component of target minus robot position
+   * @param toTargetY y component of target minus robot position
+   * @param velX field-relative robot x velocity, already multiplied by the TOF scale
+   * @param velY field-relative robot y velocity, already multiplied by the TOF scale
+   * @return the smallest non-negative root, or NaN if there is none
+   */
+  private static double solveLookaheadClosedForm(
+      double toTargetX, double toTargetY, double velX, double velY) {
+    double c = tofBaseSec - (tofSlopeSecPerMeter * minDistance);
+    double ex = toTargetX - velX * c;
+    double ey = toTargetY - velY * c;
+    double wx = velX * tofSlopeSecPerMeter;
+    double wy = velY * tofSlopeSecPerMeter;
+
+    double a = 1.0 - (wx * wx + wy * wy);
+    double b = 2.0 * (ex * wx + ey * wy);
+    double cc = -(ex * ex + ey * ey);
+
+    if (Math.abs(a) < 1e-9) {
+      return Math.abs(b) < 1e-9 ? Double.NaN : -cc / b;
+    }
+    double discriminant = b * b - 4.0 * a * cc;
+    if (discriminant < 0.0) {
+      return Double.NaN;
     }
+    double sqrtDiscriminant = Math.sqrt(discriminant);
+    double root1 = (-b - sqrtDiscriminant) / (2.0 * a);
+    double root2 = (-b + sqrtDiscriminant) / (2.0 * a);
+    double low = Math.min(root1, root2);
+    double high = Math.max(root1, root2);
+    if (low >= 0.0) return low;
+    if (high >= 0.0) return high;
+    return Double.NaN;
+  }
+
+  private void clearRecentShotHistory() {
+    recentShotHistory.clear();
+    lastRecentShotSampleSec = Double.NEGATIVE_INFINITY;
+    Logger.recordOutput("ShotCalculator/RecentHistorySize", 0);
+  }
 
-    return bestSample;
+  // Drops entries older than the history window. Called once per loop; each removal is O(1).
+  private void trimRecentShotHistory(double nowSec) {
+    recentShotHistory.trim(nowSec, recentShotHistoryWindowSec);
+    Logger.recordOutput("ShotCalculator/RecentHistorySize", recentShotHistory.size());
   }
 
-  // Saves a new sample at most once per recentShotSamplePeriodSec (100 ms).
-  // This prevents alloc churn at 50 Hz and caps the deque at ~100 entries.
+  // Saves a new sample at most once per robot loop at the current lookahead position.
   private void saveRecentShotSample(
       double nowSec,
       Goal goal,
-      Translation2d robotTranslation,
+      double lookaheadX,
+      double lookaheadY,
       double distanceMeters,
-      Rotation2d hoodAngle,
+      double hoodDeg,
       double flywheelSpeedRPM) {
-    if (nowSec - lastRecentShotSampleSec < recentShotSamplePeriodSec) {
+    if (nowSec - lastRecentShotSampleSec < recentShotSamplePeriodSec - recentShotSampleSlackSec) {
       return;
     }
 
-    recentShotSamples.addLast(
-        new RecentShotSample(
-            nowSec, goal, robotTranslation, distanceMeters, hoodAngle, flywheelSpeedRPM));
+    recentShotHistory.add(
+        goal.ordinal(), nowSec, lookaheadX, lookaheadY, distanceMeters, hoodDeg, flywheelSpeedRPM);
     lastRecentShotSampleSec = nowSec;
     trimRecentShotHistory(nowSec);
   }
 
+  /**
+   * Reads the CSV written by BallisticTableGenerator: one "distance,hood,rpm,tof" row per solved
+   * distance in increasing order, with '#' comment lines and a header row.
+   */
+  private static double[][] loadBallisticTable() {
+    Path path = Filesystem.getDeployDirectory().toPath().resolve(ballisticTablePath);
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try {
+      List<String> rows = new ArrayList<>();
+      for (String line : Files.readAllLines(path)) {
+        String row = line.trim();
+        if (!row.isEmpty() && !row.startsWith("#") && !row.startsWith("distance")) {
+          rows.add(row);
+        }
+      }
+      if (rows.size() < 2) {
+        throw new IllegalArgumentException("needs at least 2 rows");
+      }
+      double[][] columns = new double[4][rows.size()];
+      for (int r = 0; r < rows.size(); r++) {
+        String[] fields = rows.get(r).split(",");
+        if (fields.length != 4) {
+          throw new IllegalArgumentException("row " + (r + 1) + " does not have 4 columns");
+        }
+        for (int c = 0; c < 4; c++) {
+          columns[c][r] = Double.parseDouble(fields[c].trim());
+        }
+        if (r > 0 && !(columns[0][r] > columns[0][r - 1])) {
+          throw new IllegalArgumentException("distances must be increasing");
+        }
+      }
+      return columns;
+    } catch (IOException | IllegalArgumentException e) {
+      DriverStation.reportWarning(
+          "Could not load ballistic table " + path + ", using tuned curves: " + e, false);
+      return null;
+    }
+  }
+
+  // Piecewise-linear lookup in a ballistic table column, clamped to the first and last rows.
+  private static double interpolateColumn(double[] values, double distance) {
+    double[] distances = ballisticTable[0];
+    int last = distances.length - 1;
+    if (distance <= distances[0]) return values[0];
+    if (distance >= distances[last]) return values[last];
+    int upper = 1;
+    while (distances[upper] < distance) {
+      upper++;
+    }
+    double t = (distance - distances[upper - 1]) / (distances[upper] - distances[upper - 1]);
+    return lerp(values[upper - 1], values[upper], t);
+  }
+
+  private static ShotSolutionMap loadShotSolutionMap() {
+    Path path = ShotSolutionMap.getDeployFile();
+    try {
+      return ShotSolutionMap.load(path);
+    } catch (IOException | IllegalArgumentException e) {
+      DriverStation.reportWarning(
+          "Could not load shot solution map " + path + ", using distance curves: " + e, false);
+      return null;
+    }
+  }
+
+  /** Stationary hood angle for a distance, from the current tunable curves. */
+  static double stationaryHoodAngleDeg(double distanceMeters) {
+    return hoodAngleDegTable.get(distanceMeters);
+  }
+
+  /** Stationary flywheel speed for a distance, from the current tunable curves. */
+  static double stationaryFlywheelSpeedRPM(double distanceMeters) {
+    return flywheelSpeedTable.get(distanceMeters);
+  }
+
+  /** Stationary time of flight for a distance, from the current tunable curves. */
+  static double stationaryTimeOfFlightSec(double distanceMeters) {
+    return timeOfFlightTable.get(distanceMeters);
+  }
+
   private static double lerp(double start, double end, double weight) {
     return start + ((end - start) * weight);
   }
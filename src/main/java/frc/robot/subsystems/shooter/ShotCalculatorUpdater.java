@@ -0,0 +1,15 @@
+package frc.robot.subsystems.shooter;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+
+/**
+ * Computes the shot snapshot once per loop. Subsystem periodics run in registration order and
+ * before any command, so constructing this after the drive and vision subsystems makes the
+ * snapshot use this loop's odometry while every command still sees the same shot.
+ */
+public class ShotCalculatorUpdater extends SubsystemBase {
+  @Override
+  public void periodic() {
+    ShotCalculator.getInstance().update();
+  }
+}
@@ -0,0 +1,237 @@
+package frc.robot.subsystems.shooter;
+
+import java.util.Arrays;
+
+/**
+ * Rolling history of computed shots, stored as preallocated primitive arrays so adding, trimming
+ * and querying never allocate.
+ *
+ * <p>Each bucket (one per {@link ShotCalculator.Goal}) is a fixed-capacity ring. On top of the
+ * rings, a coarse grid over the field keeps a doubly linked list of the samples in each cell, so a
+ * nearest-sample query only visits the cells within the search radius instead of scanning the
+ * whole window. Points off the field clamp into the edge cells.
+ *
+ * <p>Samples are addressed by an int handle returned from {@link #findNearest}; a handle is only
+ * valid until the next {@link #add}, {@link #trim} or {@link #clear}.
+ */
+class ShotHistory {
+  private static final int none = -1;
+
+  private final int bucketCount;
+  private final int capacity;
+
+  // Sample columns, indexed by bucket * capacity + ring slot.
+  private final double[] timestampSec;
+  private final double[] xMeters;
+  private final double[] yMeters;
+  private final double[] distanceMeters;
+  private final double[] hoodAngleDeg;
+  private final double[] flywheelSpeedRPM;
+  private final int[] cellOf;
+  private final int[] nextInCell;
+  private final int[] prevInCell;
+
+  // Ring state per bucket.
+  private final int[] oldest;
+  private final int[] count;
+
+  // Spatial index: head sample of each cell, indexed by bucket * cellCount + cell.
+  private final double inverseCellSize;
+  private final int cellsX;
+  private final int cellsY;
+  private final int cellCount;
+  private final int[] cellHead;
+
+  /**
+   * Create an empty history.
+   *
+   * @param bucketCount number of independent buckets (one per goal)
+   * @param capacity max samples kept per bucket; the oldest is dropped when full
+   * @param cellSizeMeters side length of a spatial grid cell
+   * @param areaLengthMeters extent of the grid along x, starting at 0
+   * @param areaWidthMeters extent of the grid along y, starting at 0
+   */
+  ShotHistory(
+      int bucketCount,
+      int capacity,
+      double cellSizeMeters,
+      double areaLengthMeters,
+      double areaWidthMeters) {
+    this.bucketCount = bucketCount;
+    this.capacity = capacity;
+    int total = bucketCount * capacity;
+    timestampSec = new double[total];
+    xMeters = new double[total];
+    yMeters = new double[total];
+    distanceMeters = new double[total];
+    hoodAngleDeg = new double[total];
+    flywheelSpeedRPM = new double[total];
+    cellOf = new int[total];
+    nextInCell = new int[total];
+    prevInCell = new int[total];
+    oldest = new int[bucketCount];
+    count = new int[bucketCount];
+
+    inverseCellSize = 1.0 / cellSizeMeters;
+    cellsX = Math.max(1, (int) Math.ceil(areaLengthMeters / cellSizeMeters));
+    cellsY = Math.max(1, (int) Math.ceil(areaWidthMeters / cellSizeMeters));
+    cellCount = cellsX * cellsY;
+    cellHead = new int[bucketCount * cellCount];
+    clear();
+  }
+
+  /** Removes every sample. */
+  void clear() {
+    Arrays.fill(oldest, 0);
+    Arrays.fill(count, 0);
+    Arrays.fill(cellHead, none);
+  }
+
+  /** Returns the total number of samples across all buckets. */
+  int size() {
+    int size = 0;
+    for (int bucket = 0; bucket < bucketCount; bucket++) {
+      size += count[bucket];
+    }
+    return size;
+  }
+
+  /** Appends a sample to a bucket, dropping that bucket's oldest sample if it is full. */
+  void add(
+      int bucket,
+      double timestampSec,
+      double xMeters,
+      double yMeters,
+      double distanceMeters,
+      double hoodAngleDeg,
+      double flywheelSpeedRPM) {
+    if (count[bucket] == capacity) {
+      removeOldest(bucket);
+    }
+    int slot = oldest[bucket] + count[bucket];
+    if (slot >= capacity) {
+      slot -= capacity;
+    }
+    int index = bucket * capacity + slot;
+    count[bucket]++;
+
+    this.timestampSec[index] = timestampSec;
+    this.xMeters[index] = xMeters;
+    this.yMeters[index] = yMeters;
+    this.distanceMeters[index] = distanceMeters;
+    this.hoodAngleDeg[index] = hoodAngleDeg;
+    this.flywheelSpeedRPM[index] = flywheelSpeedRPM;
+
+    // Newest samples go at the head of their cell list.
+    int cell = bucket * cellCount + cellIndex(cellX(xMeters), cellY(yMeters));
+    int head = cellHead[cell];
+    cellOf[index] = cell;
+    prevInCell[index] = none;
+    nextInCell[index] = head;
+    if (head != none) {
+      prevInCell[head] = index;
+    }
+    cellHead[cell] = index;
+  }
+
+  /** Drops every sample older than {@code windowSec} before {@code nowSec}. */
+  void trim(double nowSec, double windowSec) {
+    for (int bucket = 0; bucket < bucketCount; bucket++) {
+      while (count[bucket] > 0
+          && nowSec - timestampSec[bucket * capacity + oldest[bucket]] > windowSec) {
+        removeOldest(bucket);
+      }
+    }
+  }
+
+  /**
+   * Finds the sample in a bucket closest to a point, checking only the grid cells that overlap the
+   * search radius. On a tie the newer sample wins.
+   *
+   * @return a handle to the closest sample within {@code maxDistanceMeters}, or -1 if none
+   */
+  int findNearest(int bucket, double xMeters, double yMeters, double maxDistanceMeters) {
+    if (count[bucket] == 0) {
+      return none;
+    }
+    int minCellX = cellX(xMeters - maxDistanceMeters);
+    int maxCellX = cellX(xMeters + maxDistanceMeters);
+    int minCellY = cellY(yMeters - maxDistanceMeters);
+    int maxCellY = cellY(yMeters + maxDistanceMeters);
+    int bucketCells = bucket * cellCount;
+
+    int best = none;
+    double bestDistanceSq = maxDistanceMeters * maxDistanceMeters;
+    double bestTimestamp = Double.NEGATIVE_INFINITY;
+    for (int cx = minCellX; cx <= maxCellX; cx++) {
+      for (int cy = minCellY; cy <= maxCellY; cy++) {
+        for (int i = cellHead[bucketCells + cellIndex(cx, cy)]; i != none; i = nextInCell[i]) {
+          double dx = this.xMeters[i] - xMeters;
+          double dy = this.yMeters[i] - yMeters;
+          double distanceSq = dx * dx + dy * dy;
+          if (distanceSq < bestDistanceSq
+              || (distanceSq == bestDistanceSq && timestampSec[i] > bestTimestamp)) {
+            bestDistanceSq = distanceSq;
+            bestTimestamp = timestampSec[i];
+            best = i;
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  double getX(int handle) {
+    return xMeters[handle];
+  }
+
+  double getY(int handle) {
+    return yMeters[handle];
+  }
+
+  double getDistanceMeters(int handle) {
+    return distanceMeters[handle];
+  }
+
+  double getHoodAngleDeg(int handle) {
+    return hoodAngleDeg[handle];
+  }
+
+  double getFlywheelSpeedRPM(int handle) {
+    return flywheelSpeedRPM[handle];
+  }
+
+  private void removeOldest(int bucket) {
+    int index = bucket * capacity + oldest[bucket];
+    int prev = prevInCell[index];
+    int next = nextInCell[index];
+    if (prev != none) {
+      nextInCell[prev] = next;
+    } else {
+      cellHead[cellOf[index]] = next;
+    }
+    if (next != none) {
+      prevInCell[next] = prev;
+    }
+
+    oldest[bucket] = oldest[bucket] + 1 == capacity ? 0 : oldest[bucket] + 1;
+    count[bucket]--;
+  }
+
+  private int cellX(double xMeters) {
+    return clampCell((int) Math.floor(xMeters * inverseCellSize), cellsX);
+  }
+
+  private int cellY(double yMeters) {
+    return clampCell((int) Math.floor(yMeters * inverseCellSize), cellsY);
+  }
+
+  private int cellIndex(int cx, int cy) {
+    return cx * cellsY + cy;
+  }
+
+  // Also maps NaN (cast to 0) and far off-field points onto the grid.
+  private static int clampCell(int cell, int cells) {
+    return Math.max(0, Math.min(cells - 1, cell));
+  }
+}
@@ -0,0 +1,200 @@
+package frc.robot.subsystems.shooter;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.subsystems.shooter.ShotCalculator.Goal;
+import frc.robot.util.FieldConstants;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Precomputed field-wide grid of stationary shot solutions (hood angle, flywheel RPM and time of
+ * flight) for every {@link Goal} and alliance, read from a memory-mapped binary file and sampled
+ * with bilinear interpolation.
+ *
+ * <p>File layout (little endian): a header of {@code int magic, int version, int goalCount, int
+ * allianceCount, int cellsX, int cellsY, float originX, float originY, float cellSize}, followed
+ * by one block per (goal, alliance) in that order. Each block holds {@code cellsX * cellsY} cells
+ * in row-major x order, and each cell is three floats: hood degrees, flywheel RPM, time of flight
+ * seconds. Interleaving the three values keeps a bilinear lookup to four nearby cache lines.
+ *
+ * <p>Values are stored per alliance rather than flipped at runtime so a table can carry
+ * alliance-specific corrections.
+ */
+public class ShotSolutionMap {
+  private static final int magic = 0x53484f54; // "SHOT"
+  private static final int version = 1;
+  private static final int headerBytes = 9 * Integer.BYTES;
+  private static final int valuesPerCell = 3;
+  private static final int allianceCount = 2;
+
+  /** Default location of the map in the deploy directory. */
+  public static final String deployPath = "shooter/shotmap.bin";
+
+  private final FloatBuffer data;
+  private final int cellsX;
+  private final int cellsY;
+  private final float originX;
+  private final float originY;
+  private final float inverseCellSize;
+  private final int blockFloats;
+
+  // Outputs of sample(), kept as fields so a lookup does not allocate.
+  private double hoodAngleDeg;
+  private double flywheelSpeedRPM;
+  private double timeOfFlightSec;
+
+  private ShotSolutionMap(ByteBuffer buffer) {
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(0) != magic || buffer.getInt(4) != version) {
+      throw new IllegalArgumentException("Not a version " + version + " shot solution map");
+    }
+    int goalCount = buffer.getInt(8);
+    if (goalCount != Goal.values().length || buffer.getInt(12) != allianceCount) {
+      throw new IllegalArgumentException("Shot solution map does not match the Goal enum");
+    }
+    cellsX = buffer.getInt(16);
+    cellsY = buffer.getInt(20);
+    originX = buffer.getFloat(24);
+    originY = buffer.getFloat(28);
+    inverseCellSize = 1.0f / buffer.getFloat(32);
+    blockFloats = cellsX * cellsY * valuesPerCell;
+    if (cellsX < 2 || cellsY < 2) {
+      throw new IllegalArgumentException("Shot solution map needs at least 2x2 cells");
+    }
+
+    data = buffer.position(headerBytes).slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    if (data.capacity() < goalCount * allianceCount * blockFloats) {
+      throw new IllegalArgumentException("Shot solution map is truncated");
+    }
+  }
+
+  /**
+   * Memory-maps a shot solution map.
+   *
+   * @param path the file to map
+   * @return the map
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file is not a valid map for this code
+   */
+  public static ShotSolutionMap load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new ShotSolutionMap(buffer);
+    }
+  }
+
+  /** Returns the path of the map in the deploy directory. */
+  public static Path getDeployFile() {
+    return Filesystem.getDeployDirectory().toPath().resolve(deployPath);
+  }
+
+  /**
+   * Bilinearly samples the stationary solution at a field position. Results are read back with
+   * {@link #getHoodAngleDeg()}, {@link #getFlywheelSpeedRPM()} and {@link #getTimeOfFlightSec()}.
+   *
+   * @param goal the targeted goal
+   * @param redAlliance whether to use the red alliance block
+   * @param xMeters field x of the robot
+   * @param yMeters field y of the robot
+   * @return false if the position is outside the grid, in which case the outputs are unchanged
+   */
+  public boolean sample(Goal goal, boolean redAlliance, double xMeters, double yMeters) {
+    float gx = (float) ((xMeters - originX) * inverseCellSize);
+    float gy = (float) ((yMeters - originY) * inverseCellSize);
+    // Negated comparisons also reject NaN.
+    if (!(gx >= 0.0f && gy >= 0.0f && gx <= cellsX - 1 && gy <= cellsY - 1)) {
+      return false;
+    }
+    int ix = Math.min((int) gx, cellsX - 2);
+    int iy = Math.min((int) gy, cellsY - 2);
+    float tx = gx - ix;
+    float ty = gy - iy;
+
+    int block = (goal.ordinal() * allianceCount + (redAlliance ? 1 : 0)) * blockFloats;
+    int i00 = block + (ix * cellsY + iy) * valuesPerCell;
+    int i01 = i00 + valuesPerCell;
+    int i10 = i00 + cellsY * valuesPerCell;
+    int i11 = i10 + valuesPerCell;
+
+    hoodAngleDeg = bilerp(i00, i01, i10, i11, tx, ty);
+    flywheelSpeedRPM = bilerp(i00 + 1, i01 + 1, i10 + 1, i11 + 1, tx, ty);
+    timeOfFlightSec = bilerp(i00 + 2, i01 + 2, i10 + 2, i11 + 2, tx, ty);
+    return true;
+  }
+
+  public double getHoodAngleDeg() {
+    return hoodAngleDeg;
+  }
+
+  public double getFlywheelSpeedRPM() {
+    return flywheelSpeedRPM;
+  }
+
+  public double getTimeOfFlightSec() {
+    return timeOfFlightSec;
+  }
+
+  private double bilerp(int i00, int i01, int i10, int i11, float tx, float ty) {
+    float v0 = data.get(i00) + (data.get(i10) - data.get(i00)) * tx;
+    float v1 = data.get(i01) + (data.get(i11) - data.get(i01)) * tx;
+    return v0 + (v1 - v0) * ty;
+  }
+
+  /**
+   * Writes a map covering the whole field from ShotCalculator's current stationary distance
+   * curves. This is the baseline table; zone or obstacle corrections can be layered on per cell
+   * before writing.
+   *
+   * @param path the file to write
+   * @param cellSizeMeters grid spacing
+   * @throws IOException if the file cannot be written
+   */
+  public static void generate(Path path, double cellSizeMeters) throws IOException {
+    int cellsX = (int) Math.ceil(FieldConstants.fieldLength / cellSizeMeters) + 1;
+    int cellsY = (int) Math.ceil(FieldConstants.fieldWidth / cellSizeMeters) + 1;
+    int blockFloats = cellsX * cellsY * valuesPerCell;
+    Goal[] goals = Goal.values();
+
+    ByteBuffer buffer =
+        ByteBuffer.allocate(headerBytes + goals.length * allianceCount * blockFloats * Float.BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(magic);
+    buffer.putInt(version);
+    buffer.putInt(goals.length);
+    buffer.putInt(allianceCount);
+    buffer.putInt(cellsX);
+    buffer.putInt(cellsY);
+    buffer.putFloat(0.0f);
+    buffer.putFloat(0.0f);
+    buffer.putFloat((float) cellSizeMeters);
+
+    for (Goal goal : goals) {
+      for (int alliance = 0; alliance < allianceCount; alliance++) {
+        Translation2d target = goal.pose;
+        double targetX = alliance == 0 ? target.getX() : FieldConstants.fieldLength - target.getX();
+        double targetY = alliance == 0 ? target.getY() : FieldConstants.fieldWidth - target.getY();
+        for (int ix = 0; ix < cellsX; ix++) {
+          for (int iy = 0; iy < cellsY; iy++) {
+            double distance =
+                Math.hypot(targetX - ix * cellSizeMeters, targetY - iy * cellSizeMeters);
+            buffer.putFloat((float) ShotCalculator.stationaryHoodAngleDeg(distance));
+            buffer.putFloat((float) ShotCalculator.stationaryFlywheelSpeedRPM(distance));
+            buffer.putFloat((float) ShotCalculator.stationaryTimeOfFlightSec(distance));
+          }
+        }
+      }
+    }
+
+    Files.createDirectories(path.toAbsolutePath().getParent());
+    Files.write(path, buffer.array());
+  }
+}
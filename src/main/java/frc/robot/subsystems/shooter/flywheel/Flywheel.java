@@ -6,9 +6,11 @@ import static edu.wpi.first.units.Units.RotationsPerSecond;
 import com.ctre.phoenix6.controls.MotionMagicVelocityTorqueCurrentFOC;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.MutAngularVelocity;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.subsystems.shooter.ShotCalculator;
+import frc.robot.util.LoggedTalon.LoggedTalon.RateProfile;
 import frc.robot.util.LoggedTalon.TalonFX.LoggedTalonFX;
 import frc.robot.util.LoggedTunableMeasure;
 import java.util.function.DoubleSupplier;
@@ -31,6 +33,9 @@ public class Flywheel extends SubsystemBase {
 
   @Getter @AutoLogOutput private boolean atSetpoint = false;
 
+  // Set while shooting so the shot sees the freshest velocity and current
+  private boolean highRateRequested = false;
+
   private final LoggedTunableMeasure<MutAngularVelocity> tolerance =
       new LoggedTunableMeasure<>("Flywheel/Tolerance", RPM.mutable(5));
 
@@ -66,6 +71,11 @@ public class Flywheel extends SubsystemBase {
     return run(() -> setSetpoints(RotationsPerSecond.of(targetRotPerSec.getAsDouble())));
   }
 
+  /** Request high rate status signals, e.g. for the duration of a shot. */
+  public void setHighRate(boolean highRate) {
+    highRateRequested = highRate;
+  }
+
   public boolean isAtTarget() {
     return atSetpoint;
   }
@@ -74,6 +84,15 @@ public class Flywheel extends SubsystemBase {
   public void periodic() {
     leaderMotor.periodic();
 
+    // Stowed: disabled or commanded to stop
+    if (highRateRequested) {
+      leaderMotor.setRateProfile(RateProfile.HIGH_RATE);
+    } else if (DriverStation.isDisabled() || targetVelocity.in(RotationsPerSecond) == 0.0) {
+      leaderMotor.setRateProfile(RateProfile.IDLE);
+    } else {
+      leaderMotor.setRateProfile(RateProfile.ACTIVE);
+    }
+
     // Log target and actual RPM for diagnostics
     try {
       Logger.recordOutput("Flywheel/TargetRPM", targetVelocity.in(RPM));
@@ -87,9 +106,6 @@ public class Flywheel extends SubsystemBase {
                 leaderMotor.getVelocity().in(RotationsPerSecond)
                     - targetVelocity.in(RotationsPerSecond))
             < tolerance.get().in(RotationsPerSecond);
-
-    // Clear AFTER everything uses the cached value
-    ShotCalculator.getInstance().clearCache();
   }
 
   /** Returns the current flywheel velocity in units consistent with ShotCalculator. */
@@ -10,16 +10,19 @@ import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.Slot0Configs;
 import com.ctre.phoenix6.configs.SlotConfigs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.DynamicMotionMagicVoltage;
 import com.ctre.phoenix6.controls.MotionMagicVoltage;
 import com.ctre.phoenix6.controls.NeutralOut;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rectangle2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.MutAngle;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Command.InterruptionBehavior;
@@ -62,11 +65,19 @@ public class Hood extends SubsystemBase {
   private static final LoggedTunableNumber maxAngleDeg =
       new LoggedTunableNumber("Hood/MaxAngleDeg", 70.0);
 
-  // Slow the hood when approaching limits to avoid mechanical shock
+  // Slow the hood when approaching limits to avoid mechanical shock. The slow profile is carried
+  // in each control request, so it takes effect with the move that needs it.
   private static final double LIMIT_SLOW_ZONE_DEG = 5.0;
+  private static final double LIMIT_SLOW_CRUISE_VELOCITY = 6; // Rotations per second
+  private static final double LIMIT_SLOW_ACCELERATION = 12; // Rotations per second squared
 
-  private final MotionMagicConfigs slowMotionMagic =
-      new MotionMagicConfigs().withMotionMagicCruiseVelocity(6).withMotionMagicAcceleration(12);
+  // The configured profile, also mutated in place by tuning
+  private final MotionMagicConfigs normalMotionMagic;
+  // Dynamic Motion Magic needs a CANivore; on CAN 2.0 the slowdown moves the target gradually
+  private final boolean useDynamicMotionMagic;
+  private boolean limitSlowdown = false;
+  private final MutAngle slowedTargetPosition = Degrees.mutable(0);
+  private double lastSlowedTargetSec = Double.NaN;
 
   /* Homing */
   private final LoggedTunableNumber homingVoltage =
@@ -92,10 +103,24 @@ public class Hood extends SubsystemBase {
 
   /* Control  Requests*/
   private final MotionMagicVoltage mmControl = new MotionMagicVoltage(targetPosition);
+  private final DynamicMotionMagicVoltage dynamicMmControl =
+      new DynamicMotionMagicVoltage(0, 0, 0, 0);
   private final NeutralOut neutralControl = new NeutralOut();
 
-  public Hood(LoggedTalonFX motor, LoggedDIO reverseLimit, LoggedDIO forwardLimit) {
+  /**
+   * @param motor the hood motor
+   * @param reverseLimit the reverse limit switch
+   * @param forwardLimit the forward limit switch
+   * @param useDynamicMotionMagic whether the motor supports Dynamic Motion Magic (Phoenix Pro on a
+   *     CANivore)
+   */
+  public Hood(
+      LoggedTalonFX motor,
+      LoggedDIO reverseLimit,
+      LoggedDIO forwardLimit,
+      boolean useDynamicMotionMagic) {
     this.motor = motor;
+    this.useDynamicMotionMagic = useDynamicMotionMagic;
     this.reverseLimit = reverseLimit;
     this.forwardLimit = forwardLimit;
     updateTrenchAreas();
@@ -112,7 +137,8 @@ public class Hood extends SubsystemBase {
                     .withInverted(InvertedValue.Clockwise_Positive))
             .withCurrentLimits(new CurrentLimitsConfigs().withStatorCurrentLimit(5))
             .withFeedback(new FeedbackConfigs().withSensorToMechanismRatio(15));
-    motor.withConfig(config).withMMPIDTuning(SlotConfigs.from(config.Slot0), config.MotionMagic);
+    normalMotionMagic = config.MotionMagic;
+    motor.withConfig(config).withMMPIDTuning(SlotConfigs.from(config.Slot0), normalMotionMagic);
     setDefaultCommand(aimCommand());
     new Trigger(this::shouldStow).whileTrue(stowCommand());
 
@@ -196,10 +222,8 @@ public class Hood extends SubsystemBase {
         clampedDeg > (maxAngleDeg.get() - LIMIT_SLOW_ZONE_DEG)
             || clampedDeg < (minAngleDeg.get() + LIMIT_SLOW_ZONE_DEG);
 
-    if (nearLimit) {
-      motor.quickApplyConfig(new TalonFXConfiguration().withMotionMagic(slowMotionMagic));
-      Logger.recordOutput("Hood/LimitSlowdownActive", true);
-    }
+    limitSlowdown = nearLimit;
+    Logger.recordOutput("Hood/LimitSlowdownActive", limitSlowdown);
 
     angleToPosition(Rotation2d.fromDegrees(clampedDeg), targetPosition);
 
@@ -279,7 +303,6 @@ public class Hood extends SubsystemBase {
         Math.abs(positionToAngle(motor.getPosition()).getDegrees() - targetHoodAngle.getDegrees())
             < tolerance.get().in(Degrees);
 
-    ShotCalculator.getInstance().clearCache();
     LoggedTunableNumber.ifChanged(this, (value) -> this.updateTrenchAreas(), stowTrenchGapOffset);
 
     // Safety: if the mechanism is beyond the allowed max angle, stop commanding it.
@@ -300,10 +323,28 @@ public class Hood extends SubsystemBase {
    * subsystem periodic to properly apply limit switches
    */
   private void setControl() {
-    if (positionControl) {
+    if (positionControl && useDynamicMotionMagic) {
       motor.setControl(
-          mmControl
+          dynamicMmControl
               .withPosition(targetPosition)
+              .withVelocity(
+                  limitSlowdown
+                      ? LIMIT_SLOW_CRUISE_VELOCITY
+                      : normalMotionMagic.MotionMagicCruiseVelocity)
+              .withAcceleration(
+                  limitSlowdown
+                      ? LIMIT_SLOW_ACCELERATION
+                      : normalMotionMagic.MotionMagicAcceleration)
+              .withJerk(limitSlowdown ? 0.0 : normalMotionMagic.MotionMagicJerk)
+              .withLimitReverseMotion(reverseLimit.get())
+              .withLimitForwardMotion(forwardLimit.get()));
+    } else if (positionControl) {
+      if (!limitSlowdown) {
+        lastSlowedTargetSec = Double.NaN;
+      }
+      motor.setControl(
+          mmControl
+              .withPosition(limitSlowdown ? updateSlowedTarget() : targetPosition)
               .withLimitReverseMotion(reverseLimit.get())
               .withLimitForwardMotion(forwardLimit.get()));
     } else {
@@ -312,6 +353,31 @@ public class Hood extends SubsystemBase {
     }
   }
 
+  /**
+   * Moves the Motion Magic target toward {@link #targetPosition} at the slow cruise velocity, for
+   * motors without Dynamic Motion Magic. Starts from the measured position when the slowdown
+   * begins, so the hood never runs ahead of the slow profile.
+   *
+   * @return the target to command this loop
+   */
+  private Angle updateSlowedTarget() {
+    double nowSec = Timer.getFPGATimestamp();
+    double currentRot;
+    double maxStepRot;
+    if (Double.isNaN(lastSlowedTargetSec)) {
+      currentRot = motor.getPosition().in(Rotations);
+      maxStepRot = 0.0;
+    } else {
+      currentRot = slowedTargetPosition.in(Rotations);
+      maxStepRot = LIMIT_SLOW_CRUISE_VELOCITY * Math.max(0.0, nowSec - lastSlowedTargetSec);
+    }
+    lastSlowedTargetSec = nowSec;
+    double goalRot = targetPosition.in(Rotations);
+    slowedTargetPosition.mut_replace(
+        currentRot + MathUtil.clamp(goalRot - currentRot, -maxStepRot, maxStepRot), Rotations);
+    return slowedTargetPosition;
+  }
+
   /**
    * Converts the robot relative angle to motor position. This is just a helper; would be static if
    * it didn't use tuned values.
@@ -0,0 +1,288 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.util.Units;
+import java.util.Arrays;
+
+/**
+ * Solves for the robot's field pose (x, y, heading) from the AprilTag corners seen by several
+ * cameras at once, by minimizing the pixel reprojection error of every corner with Gauss-Newton.
+ *
+ * <p>The robot is assumed flat on the floor, so each camera's height, roll and pitch come from its
+ * robot-to-camera transform. Cameras use the pinhole model from their calibrated focal lengths and
+ * principal point; lens distortion is ignored. The solve is warm-started from a nearby pose (the
+ * odometry pose at the frame time), takes at most {@code maxIterations} steps, and reports its
+ * iteration count, RMS error and solve time.
+ *
+ * <p>Corners are added with {@link #addCorner}, then {@link #solve} is called; {@link #reset()}
+ * starts the next frame. Nothing is allocated once the corner buffers have grown to size. Not
+ * thread safe.
+ */
+class MultiCameraPoseSolver {
+  private static final int maxIterations = 10;
+  private static final double convergedStepNorm = 1e-5;
+  private static final double damping = 1e-9;
+  private static final double finiteDifferenceStep = 1e-6;
+  private static final double tagSizeMeters = Units.inchesToMeters(6.5);
+
+  // Robot-to-camera rotation (row-major) and translation for each camera
+  private final double[][] cameraRotation;
+  private final double[][] cameraTranslation;
+
+  // Field position of each corner of each tag, indexed by tag ID then corner * 3 + axis
+  private final double[][] tagCorners;
+
+  // Corner observations for the current frame
+  private int cornerCount = 0;
+  private int[] cornerCamera = new int[32];
+  private double[] cornerField = new double[32 * 3];
+  private double[] cornerPixel = new double[32 * 2];
+  private double[] cornerIntrinsics = new double[32 * 4];
+
+  // Workspace
+  private double[] residuals = new double[64];
+  private double[] perturbedResiduals = new double[64];
+  private final double[][] jacobian = new double[3][64];
+  private final double[] pose = new double[3];
+  private final double[] perturbedPose = new double[3];
+
+  private int iterations = 0;
+  private double rmsErrorPx = Double.NaN;
+  private double solveMs = 0.0;
+
+  /**
+   * Create a solver.
+   *
+   * @param robotToCamera the transform from the robot to each camera, indexed by camera
+   * @param layout the field layout, including the origin to use
+   */
+  MultiCameraPoseSolver(Transform3d[] robotToCamera, AprilTagFieldLayout layout) {
+    cameraRotation = new double[robotToCamera.length][];
+    cameraTranslation = new double[robotToCamera.length][];
+    for (int i = 0; i < robotToCamera.length; i++) {
+      var matrix = robotToCamera[i].getRotation().toMatrix();
+      cameraRotation[i] = new double[9];
+      for (int row = 0; row < 3; row++) {
+        for (int col = 0; col < 3; col++) {
+          cameraRotation[i][row * 3 + col] = matrix.get(row, col);
+        }
+      }
+      var translation = robotToCamera[i].getTranslation();
+      cameraTranslation[i] =
+          new double[] {translation.getX(), translation.getY(), translation.getZ()};
+    }
+
+    // Corners in PhotonVision's order: bottom left, bottom right, top right, top left, as seen
+    // from the front of the tag
+    double half = tagSizeMeters / 2.0;
+    double[][] cornerOffsets = {{-half, -half}, {half, -half}, {half, half}, {-half, half}};
+    int maxTagId = 0;
+    for (var tag : layout.getTags()) {
+      maxTagId = Math.max(maxTagId, tag.ID);
+    }
+    tagCorners = new double[maxTagId + 1][];
+    for (var tag : layout.getTags()) {
+      Pose3d tagPose = layout.getTagPose(tag.ID).orElse(null);
+      if (tagPose == null) continue;
+      tagCorners[tag.ID] = new double[12];
+      for (int corner = 0; corner < 4; corner++) {
+        Translation3d offset =
+            new Translation3d(0.0, cornerOffsets[corner][0], cornerOffsets[corner][1])
+                .rotateBy(tagPose.getRotation());
+        tagCorners[tag.ID][corner * 3] = tagPose.getX() + offset.getX();
+        tagCorners[tag.ID][corner * 3 + 1] = tagPose.getY() + offset.getY();
+        tagCorners[tag.ID][corner * 3 + 2] = tagPose.getZ() + offset.getZ();
+      }
+    }
+  }
+
+  /** Returns whether a camera index has a known robot-to-camera transform. */
+  boolean hasCamera(int cameraIndex) {
+    return cameraIndex >= 0 && cameraIndex < cameraRotation.length;
+  }
+
+  /** Drops every corner, to start a new frame. */
+  void reset() {
+    cornerCount = 0;
+  }
+
+  int getCornerCount() {
+    return cornerCount;
+  }
+
+  /**
+   * Adds an observed tag corner.
+   *
+   * @param cameraIndex the camera that saw it; must satisfy {@link #hasCamera(int)}
+   * @param intrinsics the camera's fx, fy, cx and cy, in pixels
+   * @param tagId the tag's fiducial ID
+   * @param corner the corner index, 0 to 3
+   * @param u pixel x
+   * @param v pixel y
+   * @return false if the tag or corner is unknown, in which case it is ignored
+   */
+  boolean addCorner(
+      int cameraIndex, double[] intrinsics, int tagId, int corner, double u, double v) {
+    if (tagId < 0 || tagId >= tagCorners.length || tagCorners[tagId] == null) return false;
+    if (corner < 0 || corner > 3) return false;
+    if (cornerCount == cornerCamera.length) {
+      int capacity = cornerCount * 2;
+      cornerCamera = Arrays.copyOf(cornerCamera, capacity);
+      cornerField = Arrays.copyOf(cornerField, capacity * 3);
+      cornerPixel = Arrays.copyOf(cornerPixel, capacity * 2);
+      cornerIntrinsics = Arrays.copyOf(cornerIntrinsics, capacity * 4);
+      residuals = new double[capacity * 2];
+      perturbedResiduals = new double[capacity * 2];
+      for (int i = 0; i < 3; i++) {
+        jacobian[i] = new double[capacity * 2];
+      }
+    }
+    cornerCamera[cornerCount] = cameraIndex;
+    System.arraycopy(tagCorners[tagId], corner * 3, cornerField, cornerCount * 3, 3);
+    cornerPixel[cornerCount * 2] = u;
+    cornerPixel[cornerCount * 2 + 1] = v;
+    System.arraycopy(intrinsics, 0, cornerIntrinsics, cornerCount * 4, 4);
+    cornerCount++;
+    return true;
+  }
+
+  /**
+   * Runs Gauss-Newton from an initial pose.
+   *
+   * @return false if there are too few corners or a corner ended up behind its camera
+   */
+  boolean solve(double initialX, double initialY, double initialTheta) {
+    long startNs = System.nanoTime();
+    pose[0] = initialX;
+    pose[1] = initialY;
+    pose[2] = initialTheta;
+    iterations = 0;
+    rmsErrorPx = Double.NaN;
+    boolean valid = cornerCount >= 4 && computeResiduals(pose, residuals);
+
+    while (valid && iterations < maxIterations) {
+      iterations++;
+
+      // Forward-difference Jacobian, one column per pose variable
+      for (int variable = 0; variable < 3 && valid; variable++) {
+        System.arraycopy(pose, 0, perturbedPose, 0, 3);
+        perturbedPose[variable] += finiteDifferenceStep;
+        valid = computeResiduals(perturbedPose, perturbedResiduals);
+        for (int i = 0; i < cornerCount * 2; i++) {
+          jacobian[variable][i] =
+              (perturbedResiduals[i] - residuals[i]) / finiteDifferenceStep;
+        }
+      }
+      if (!valid) break;
+
+      // Normal equations (J^T J) step = -J^T r, solved by the 3x3 adjugate
+      double a00 = damping, a01 = 0.0, a02 = 0.0, a11 = damping, a12 = 0.0, a22 = damping;
+      double b0 = 0.0, b1 = 0.0, b2 = 0.0;
+      for (int i = 0; i < cornerCount * 2; i++) {
+        double j0 = jacobian[0][i];
+        double j1 = jacobian[1][i];
+        double j2 = jacobian[2][i];
+        a00 += j0 * j0;
+        a01 += j0 * j1;
+        a02 += j0 * j2;
+        a11 += j1 * j1;
+        a12 += j1 * j2;
+        a22 += j2 * j2;
+        b0 -= j0 * residuals[i];
+        b1 -= j1 * residuals[i];
+        b2 -= j2 * residuals[i];
+      }
+      double c00 = a11 * a22 - a12 * a12;
+      double c01 = a02 * a12 - a01 * a22;
+      double c02 = a01 * a12 - a02 * a11;
+      double c11 = a00 * a22 - a02 * a02;
+      double c12 = a01 * a02 - a00 * a12;
+      double c22 = a00 * a11 - a01 * a01;
+      double determinant = a00 * c00 + a01 * c01 + a02 * c02;
+      if (!(Math.abs(determinant) > 0.0)) {
+        valid = false;
+        break;
+      }
+      double step0 = (c00 * b0 + c01 * b1 + c02 * b2) / determinant;
+      double step1 = (c01 * b0 + c11 * b1 + c12 * b2) / determinant;
+      double step2 = (c02 * b0 + c12 * b1 + c22 * b2) / determinant;
+      pose[0] += step0;
+      pose[1] += step1;
+      pose[2] += step2;
+      valid = computeResiduals(pose, residuals);
+      if (Math.sqrt(step0 * step0 + step1 * step1 + step2 * step2) < convergedStepNorm) break;
+    }
+
+    if (valid) {
+      double sumSquares = 0.0;
+      for (int i = 0; i < cornerCount * 2; i++) {
+        sumSquares += residuals[i] * residuals[i];
+      }
+      rmsErrorPx = Math.sqrt(sumSquares / (cornerCount * 2));
+    }
+    solveMs = (System.nanoTime() - startNs) / 1e6;
+    return valid;
+  }
+
+  // Reprojection error of every corner at a robot pose; false if a corner is behind its camera
+  private boolean computeResiduals(double[] robotPose, double[] out) {
+    double cos = Math.cos(robotPose[2]);
+    double sin = Math.sin(robotPose[2]);
+    for (int i = 0; i < cornerCount; i++) {
+      // Field to robot frame
+      double dx = cornerField[i * 3] - robotPose[0];
+      double dy = cornerField[i * 3 + 1] - robotPose[1];
+      double robotX = cos * dx + sin * dy;
+      double robotY = -sin * dx + cos * dy;
+      double robotZ = cornerField[i * 3 + 2];
+
+      // Robot to camera frame (inverse of the robot-to-camera transform)
+      double[] rotation = cameraRotation[cornerCamera[i]];
+      double[] translation = cameraTranslation[cornerCamera[i]];
+      double px = robotX - translation[0];
+      double py = robotY - translation[1];
+      double pz = robotZ - translation[2];
+      double cameraX = rotation[0] * px + rotation[3] * py + rotation[6] * pz;
+      double cameraY = rotation[1] * px + rotation[4] * py + rotation[7] * pz;
+      double cameraZ = rotation[2] * px + rotation[5] * py + rotation[8] * pz;
+      if (cameraX <= 1e-3) return false;
+
+      // Project; the camera looks along +X with +Y left and +Z up
+      double fx = cornerIntrinsics[i * 4];
+      double fy = cornerIntrinsics[i * 4 + 1];
+      double cx = cornerIntrinsics[i * 4 + 2];
+      double cy = cornerIntrinsics[i * 4 + 3];
+      out[i * 2] = cx - fx * cameraY / cameraX - cornerPixel[i * 2];
+      out[i * 2 + 1] = cy - fy * cameraZ / cameraX - cornerPixel[i * 2 + 1];
+    }
+    return true;
+  }
+
+  double getX() {
+    return pose[0];
+  }
+
+  double getY() {
+    return pose[1];
+  }
+
+  double getTheta() {
+    return pose[2];
+  }
+
+  int getIterations() {
+    return iterations;
+  }
+
+  /** Returns the RMS reprojection error of the last solve in pixels, or NaN if it failed. */
+  double getRmsErrorPx() {
+    return rmsErrorPx;
+  }
+
+  double getSolveMs() {
+    return solveMs;
+  }
+}
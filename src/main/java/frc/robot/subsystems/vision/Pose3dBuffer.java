@@ -0,0 +1,56 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Pose3d;
+
+/**
+ * Growable list of poses that is cleared and refilled every loop without allocating once it has
+ * reached its working size.
+ *
+ * <p>{@link #toArray()} returns an array of exactly {@link #size()} elements, as logging needs, but
+ * reuses one array per length instead of allocating. The returned array is only valid until the
+ * buffer is next changed; AdvantageKit serializes struct arrays when they are recorded, so passing
+ * it straight to {@code Logger.recordOutput} is safe.
+ */
+class Pose3dBuffer {
+  private Pose3d[] poses = new Pose3d[8];
+  private Pose3d[][] arraysByLength = new Pose3d[poses.length + 1][];
+  private int size = 0;
+
+  void clear() {
+    size = 0;
+  }
+
+  void add(Pose3d pose) {
+    if (size == poses.length) {
+      Pose3d[] grown = new Pose3d[poses.length * 2];
+      System.arraycopy(poses, 0, grown, 0, size);
+      poses = grown;
+    }
+    poses[size++] = pose;
+  }
+
+  void addAll(Pose3dBuffer other) {
+    for (int i = 0; i < other.size; i++) {
+      add(other.poses[i]);
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  Pose3d[] toArray() {
+    if (size >= arraysByLength.length) {
+      Pose3d[][] grown = new Pose3d[Math.max(size + 1, arraysByLength.length * 2)][];
+      System.arraycopy(arraysByLength, 0, grown, 0, arraysByLength.length);
+      arraysByLength = grown;
+    }
+    Pose3d[] array = arraysByLength[size];
+    if (array == null) {
+      array = new Pose3d[size];
+      arraysByLength[size] = array;
+    }
+    System.arraycopy(poses, 0, array, 0, size);
+    return array;
+  }
+}
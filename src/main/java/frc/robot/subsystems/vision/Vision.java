@@ -9,8 +9,8 @@ package frc.robot.subsystems.vision;
 
 import static frc.robot.subsystems.vision.VisionConstants.*;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.Matrix;
-import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -18,10 +18,20 @@ import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import java.util.LinkedList;
-import java.util.List;
+import frc.robot.RobotState;
+import frc.robot.util.AllocationCounter;
+import frc.robot.util.LoggedTunableNumber;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import org.littletonrobotics.junction.Logger;
+import org.littletonrobotics.junction.networktables.LoggedNetworkBoolean;
 import org.photonvision.PhotonCamera;
 
 public class Vision extends SubsystemBase {
@@ -30,11 +40,83 @@ public class Vision extends SubsystemBase {
     OBJECT_DETECTION
   }
 
+  /** Why a pose observation was not sent to the estimator. */
+  public static enum RejectReason {
+    NO_TAGS,
+    AMBIGUITY,
+    Z_ERROR,
+    FIELD_BOUNDS,
+    INNOVATION
+  }
+
   private final VisionConsumer consumer;
   private final VisionIO[] io;
   private final VisionIOInputsAutoLogged[] inputs;
   private final Alert[] disconnectedAlerts;
 
+  // Reused every loop so periodic() doesn't allocate once warmed up
+  private final Pose3d[] tagPosesById;
+  private final String[] inputsKeys;
+  private final String[] tagPosesKeys;
+  private final String[] robotPosesKeys;
+  private final String[] robotPosesAcceptedKeys;
+  private final String[] robotPosesRejectedKeys;
+  private final Pose3dBuffer[] tagPoses;
+  private final Pose3dBuffer[] robotPoses;
+  private final Pose3dBuffer[] robotPosesAccepted;
+  private final Pose3dBuffer[] robotPosesRejected;
+  private final Pose3dBuffer allTagPoses = new Pose3dBuffer();
+  private final Pose3dBuffer allRobotPoses = new Pose3dBuffer();
+  private final Pose3dBuffer allRobotPosesAccepted = new Pose3dBuffer();
+  private final Pose3dBuffer allRobotPosesRejected = new Pose3dBuffer();
+  private final VisionMeasurementMerger merger;
+
+  // Opt-in: read and process cameras on a worker pool. Inputs are still processed and results
+  // logged and sent on the main thread in camera order, so logs and replay are unchanged.
+  private final LoggedNetworkBoolean parallelProcessing =
+      new LoggedNetworkBoolean("/Tuning/Vision/ParallelProcessing", false);
+  private ExecutorService workerPool = null;
+  private final Runnable[] updateTasks;
+  private final Runnable[] processTasks;
+  private final Future<?>[] futures;
+
+  // Per-camera state of the submitted task. A worker claims a task by moving it from queued to
+  // running, so the main thread can tell whether a cancelled task will never run.
+  private static final int taskQueued = 0;
+  private static final int taskRunning = 1;
+  private static final int taskFinished = 2;
+  private static final int taskFailed = 3;
+  private static final int taskCancelled = 4;
+  private final AtomicIntegerArray taskStates;
+  private final Runnable[] workerUpdateTasks;
+  private final Runnable[] workerProcessTasks;
+
+  // Opt-in: when cameras see frames at nearly the same time, solve the robot pose jointly from all
+  // of their tag corners instead of trusting each camera's own multitag result
+  private static final boolean useMultiCameraSolve = false;
+  private final MultiCameraPoseSolver multiCameraSolver;
+  private final double[] jointFrameTimestamps; // Per camera, NaN if not in the joint solve
+  private double jointTimestamp = 0.0;
+  private double jointLinearStdDev = 0.0;
+  private double jointAngularStdDev = 0.0;
+  private double jointExpectedX = 0.0;
+  private double jointExpectedY = 0.0;
+  private double jointExpectedTheta = 0.0;
+
+  // Innovation gate: rejects observations too far from the pose history at their timestamp,
+  // measured in standard deviations. Expected poses are sampled on the main thread, since the pose
+  // history isn't thread safe, and stored as x, y, theta per observation.
+  private final LoggedTunableNumber maxInnovationSigma =
+      new LoggedTunableNumber("Vision/MaxInnovationSigma", 4.0);
+  private boolean gateActive = false;
+  private double gateThreshold = 0.0;
+  private double gatedSinceSec = Double.NaN; // First innovation rejection since an acceptance
+  private final double[][] expectedPoses;
+  private final double[] maxInnovations;
+  private final int[][] rejectionCounts;
+  private final String[][] rejectionKeys;
+  private final String[] maxInnovationKeys;
+
   // PhotonCamera for object detection (game pieces, etc.) - separate from AprilTag cameras
   // Public so commands can access latest results directly
   public final PhotonCamera objectCamera;
@@ -75,6 +157,65 @@ public class Vision extends SubsystemBase {
           new Alert(
               "Vision camera " + Integer.toString(i) + " is disconnected.", AlertType.kWarning);
     }
+
+    merger = new VisionMeasurementMerger(io.length);
+    multiCameraSolver = new MultiCameraPoseSolver(robotToCameras, aprilTagLayout);
+    jointFrameTimestamps = new double[io.length];
+    expectedPoses = new double[io.length][3 * 8];
+    maxInnovations = new double[io.length];
+    rejectionCounts = new int[io.length][RejectReason.values().length];
+    tagPoses = new Pose3dBuffer[io.length];
+    robotPoses = new Pose3dBuffer[io.length];
+    robotPosesAccepted = new Pose3dBuffer[io.length];
+    robotPosesRejected = new Pose3dBuffer[io.length];
+    updateTasks = new Runnable[io.length];
+    processTasks = new Runnable[io.length];
+    futures = new Future<?>[io.length];
+    taskStates = new AtomicIntegerArray(io.length);
+    workerUpdateTasks = new Runnable[io.length];
+    workerProcessTasks = new Runnable[io.length];
+    for (int i = 0; i < io.length; i++) {
+      tagPoses[i] = new Pose3dBuffer();
+      robotPoses[i] = new Pose3dBuffer();
+      robotPosesAccepted[i] = new Pose3dBuffer();
+      robotPosesRejected[i] = new Pose3dBuffer();
+      final int cameraIndex = i;
+      updateTasks[i] = () -> io[cameraIndex].updateInputs(inputs[cameraIndex]);
+      processTasks[i] = () -> processCamera(cameraIndex);
+      workerUpdateTasks[i] = workerTask(cameraIndex, updateTasks[i]);
+      workerProcessTasks[i] = workerTask(cameraIndex, processTasks[i]);
+    }
+
+    // Build log keys once
+    inputsKeys = new String[io.length];
+    tagPosesKeys = new String[io.length];
+    robotPosesKeys = new String[io.length];
+    robotPosesAcceptedKeys = new String[io.length];
+    robotPosesRejectedKeys = new String[io.length];
+    rejectionKeys = new String[io.length][RejectReason.values().length];
+    maxInnovationKeys = new String[io.length];
+    for (int i = 0; i < io.length; i++) {
+      inputsKeys[i] = "Vision/Camera" + Integer.toString(i);
+      tagPosesKeys[i] = inputsKeys[i] + "/TagPoses";
+      robotPosesKeys[i] = inputsKeys[i] + "/RobotPoses";
+      robotPosesAcceptedKeys[i] = inputsKeys[i] + "/RobotPosesAccepted";
+      robotPosesRejectedKeys[i] = inputsKeys[i] + "/RobotPosesRejected";
+      for (var reason : RejectReason.values()) {
+        rejectionKeys[i][reason.ordinal()] = inputsKeys[i] + "/Rejections/" + reason.name();
+      }
+      maxInnovationKeys[i] = inputsKeys[i] + "/MaxInnovationSigma";
+    }
+
+    // Index tag poses by ID, so lookups don't go through an Optional
+    int maxTagId = 0;
+    for (var tag : aprilTagLayout.getTags()) {
+      maxTagId = Math.max(maxTagId, tag.ID);
+    }
+    tagPosesById = new Pose3d[maxTagId + 1];
+    for (var tag : aprilTagLayout.getTags()) {
+      // Through getTagPose so the layout's origin is applied
+      tagPosesById[tag.ID] = aprilTagLayout.getTagPose(tag.ID).orElse(null);
+    }
   }
 
   /**
@@ -127,108 +268,477 @@ public class Vision extends SubsystemBase {
         "Vision/ObjectCamera/PipelineMode",
         activeObjectPipeline == ObjectPipeline.APRILTAG ? 0 : 1);
 
+    long startNs = System.nanoTime();
+    long startBytes = AllocationCounter.getCurrentThreadAllocatedBytes();
+    boolean parallel = parallelProcessing.get() && io.length > 1;
+
+    // Read cameras. IOs that share state (like the sim) are read here, in order.
+    if (parallel) {
+      for (int i = 0; i < io.length; i++) {
+        futures[i] = io[i].supportsParallelUpdate() ? submit(i, workerUpdateTasks[i]) : null;
+      }
+      for (int i = 0; i < io.length; i++) {
+        if (futures[i] == null) {
+          updateTasks[i].run();
+        }
+      }
+      awaitAll(updateTasks);
+    } else {
+      for (int i = 0; i < io.length; i++) {
+        updateTasks[i].run();
+      }
+    }
     for (int i = 0; i < io.length; i++) {
-      io[i].updateInputs(inputs[i]);
-      Logger.processInputs("Vision/Camera" + Integer.toString(i), inputs[i]);
+      Logger.processInputs(inputsKeys[i], inputs[i]);
+    }
+
+    // Look up where the pose history puts the robot at each observation
+    sampleExpectedPoses();
+
+    // Solve jointly across cameras; uses the pose history, so stays on the main thread. If the
+    // joint pose fails the innovation gate, each camera's own observations are gated instead.
+    boolean jointSolved = useMultiCameraSolve && solveMultiCamera();
+    if (jointSolved && gateActive) {
+      double jointInnovation =
+          innovation(
+              multiCameraSolver.getX(),
+              multiCameraSolver.getY(),
+              multiCameraSolver.getTheta(),
+              jointExpectedX,
+              jointExpectedY,
+              jointExpectedTheta,
+              jointLinearStdDev,
+              jointAngularStdDev);
+      Logger.recordOutput("Vision/MultiCamera/InnovationSigma", jointInnovation);
+      jointSolved = jointInnovation <= gateThreshold;
+      Logger.recordOutput("Vision/MultiCamera/InnovationRejected", !jointSolved);
+    }
+    if (!jointSolved) {
+      Arrays.fill(jointFrameTimestamps, Double.NaN);
+    }
+
+    // Filter observations and compute standard deviations
+    if (parallel) {
+      for (int i = 0; i < io.length; i++) {
+        futures[i] = submit(i, workerProcessTasks[i]);
+      }
+      awaitAll(processTasks);
+    } else {
+      for (int i = 0; i < io.length; i++) {
+        processTasks[i].run();
+      }
+    }
+    if (jointSolved) {
+      merger.add(
+          firstJointCamera(),
+          jointTimestamp,
+          new Pose3d(
+              new Pose2d(
+                  multiCameraSolver.getX(),
+                  multiCameraSolver.getY(),
+                  new Rotation2d(multiCameraSolver.getTheta()))),
+          jointLinearStdDev,
+          jointAngularStdDev);
     }
 
     // Initialize logging values
-    List<Pose3d> allTagPoses = new LinkedList<>();
-    List<Pose3d> allRobotPoses = new LinkedList<>();
-    List<Pose3d> allRobotPosesAccepted = new LinkedList<>();
-    List<Pose3d> allRobotPosesRejected = new LinkedList<>();
+    allTagPoses.clear();
+    allRobotPoses.clear();
+    allRobotPosesAccepted.clear();
+    allRobotPosesRejected.clear();
 
     // Loop over cameras
     for (int cameraIndex = 0; cameraIndex < io.length; cameraIndex++) {
       // Update disconnected alert
       disconnectedAlerts[cameraIndex].set(!inputs[cameraIndex].connected);
 
-      // Initialize logging values
-      List<Pose3d> tagPoses = new LinkedList<>();
-      List<Pose3d> robotPoses = new LinkedList<>();
-      List<Pose3d> robotPosesAccepted = new LinkedList<>();
-      List<Pose3d> robotPosesRejected = new LinkedList<>();
-
-      // Add tag poses
-      for (int tagId : inputs[cameraIndex].tagIds) {
-        var tagPose = aprilTagLayout.getTagPose(tagId);
-        if (tagPose.isPresent()) {
-          tagPoses.add(tagPose.get());
-        }
+      // Log camera metadata
+      Logger.recordOutput(tagPosesKeys[cameraIndex], tagPoses[cameraIndex].toArray());
+      Logger.recordOutput(robotPosesKeys[cameraIndex], robotPoses[cameraIndex].toArray());
+      Logger.recordOutput(
+          robotPosesAcceptedKeys[cameraIndex], robotPosesAccepted[cameraIndex].toArray());
+      Logger.recordOutput(
+          robotPosesRejectedKeys[cameraIndex], robotPosesRejected[cameraIndex].toArray());
+      allTagPoses.addAll(tagPoses[cameraIndex]);
+      allRobotPoses.addAll(robotPoses[cameraIndex]);
+      allRobotPosesAccepted.addAll(robotPosesAccepted[cameraIndex]);
+      allRobotPosesRejected.addAll(robotPosesRejected[cameraIndex]);
+      for (int reason = 0; reason < rejectionCounts[cameraIndex].length; reason++) {
+        Logger.recordOutput(
+            rejectionKeys[cameraIndex][reason], rejectionCounts[cameraIndex][reason]);
       }
+      Logger.recordOutput(maxInnovationKeys[cameraIndex], maxInnovations[cameraIndex]);
+    }
+    if (allRobotPosesAccepted.size() > 0) {
+      gatedSinceSec = Double.NaN;
+    } else if (Double.isNaN(gatedSinceSec) && countInnovationRejections() > 0) {
+      gatedSinceSec = Timer.getFPGATimestamp();
+    }
+    Logger.recordOutput("Vision/InnovationGateActive", gateActive);
 
-      // Loop over pose observations
-      for (var observation : inputs[cameraIndex].poseObservations) {
-        // Check whether to reject pose
-        boolean rejectPose =
-            observation.tagCount() == 0 // Must have at least one tag
-                || (observation.tagCount() == 1
-                    && observation.ambiguity() > maxAmbiguity) // Cannot be high ambiguity
-                || Math.abs(observation.pose().getZ())
-                    > maxZError // Must have realistic Z coordinate
-
-                // Must be within the field boundaries
-                || observation.pose().getX() < 0.0
-                || observation.pose().getX() > aprilTagLayout.getFieldLength()
-                || observation.pose().getY() < 0.0
-                || observation.pose().getY() > aprilTagLayout.getFieldWidth();
-
-        // Add pose to log
-        robotPoses.add(observation.pose());
-        if (rejectPose) {
-          robotPosesRejected.add(observation.pose());
-        } else {
-          robotPosesAccepted.add(observation.pose());
-        }
+    // Send every camera's observations to the estimator, oldest first
+    merger.flush(consumer);
 
-        // Skip if rejected
-        if (rejectPose) {
-          continue;
-        }
+    // Log summary data
+    Logger.recordOutput("Vision/Summary/TagPoses", allTagPoses.toArray());
+    Logger.recordOutput("Vision/Summary/RobotPoses", allRobotPoses.toArray());
+    Logger.recordOutput("Vision/Summary/RobotPosesAccepted", allRobotPosesAccepted.toArray());
+    Logger.recordOutput("Vision/Summary/RobotPosesRejected", allRobotPosesRejected.toArray());
+    Logger.recordOutput(
+        "Vision/PeriodicAllocatedBytes",
+        AllocationCounter.getCurrentThreadAllocatedBytes() - startBytes);
+    Logger.recordOutput(
+        parallel ? "Vision/MainLoopMs/Parallel" : "Vision/MainLoopMs/Serial",
+        (System.nanoTime() - startNs) / 1e6);
+  }
+
+  /**
+   * Filters one camera's observations into its log buffers and the merger. Touches only that
+   * camera's state, so cameras can be processed concurrently.
+   */
+  private void processCamera(int cameraIndex) {
+    tagPoses[cameraIndex].clear();
+    robotPoses[cameraIndex].clear();
+    robotPosesAccepted[cameraIndex].clear();
+    robotPosesRejected[cameraIndex].clear();
+    merger.clear(cameraIndex);
+
+    // Add tag poses
+    for (int tagId : inputs[cameraIndex].tagIds) {
+      if (tagId >= 0 && tagId < tagPosesById.length && tagPosesById[tagId] != null) {
+        tagPoses[cameraIndex].add(tagPosesById[tagId]);
+      }
+    }
+
+    // Loop over pose observations
+    var observations = inputs[cameraIndex].poseObservations;
+    double[] expected = expectedPoses[cameraIndex];
+    int[] counts = rejectionCounts[cameraIndex];
+    Arrays.fill(counts, 0);
+    maxInnovations[cameraIndex] = 0.0;
+    for (int i = 0; i < observations.length; i++) {
+      var observation = observations[i];
+
+      // Check whether to reject pose
+      RejectReason rejectReason = null;
+      if (observation.tagCount() == 0) { // Must have at least one tag
+        rejectReason = RejectReason.NO_TAGS;
+      } else if (observation.tagCount() == 1
+          && observation.ambiguity() > maxAmbiguity) { // Cannot be high ambiguity
+        rejectReason = RejectReason.AMBIGUITY;
+      } else if (Math.abs(observation.pose().getZ())
+          > maxZError) { // Must have realistic Z coordinate
+        rejectReason = RejectReason.Z_ERROR;
+      } else if (observation.pose().getX() < 0.0 // Must be within the field boundaries
+          || observation.pose().getX() > aprilTagLayout.getFieldLength()
+          || observation.pose().getY() < 0.0
+          || observation.pose().getY() > aprilTagLayout.getFieldWidth()) {
+        rejectReason = RejectReason.FIELD_BOUNDS;
+      }
 
-        // Calculate standard deviations
+      // Calculate standard deviations
+      double linearStdDev = 0.0;
+      double angularStdDev = 0.0;
+      if (rejectReason == null) {
         double stdDevFactor =
             Math.pow(observation.averageTagDistance(), 2.0) / observation.tagCount();
-        double linearStdDev = linearStdDevBaseline * stdDevFactor;
-        double angularStdDev = angularStdDevBaseline * stdDevFactor;
+        linearStdDev = linearStdDevBaseline * stdDevFactor;
+        angularStdDev = angularStdDevBaseline * stdDevFactor;
         if (cameraIndex < cameraStdDevFactors.length) {
           linearStdDev *= cameraStdDevFactors[cameraIndex];
           angularStdDev *= cameraStdDevFactors[cameraIndex];
         }
 
-        // Send vision observation
-        consumer.accept(
-            observation.pose().toPose2d(),
-            observation.timestamp(),
-            VecBuilder.fill(linearStdDev, linearStdDev, angularStdDev));
+        // Must agree with the pose history, given both are uncertain
+        if (gateActive) {
+          double innovation =
+              innovation(
+                  observation.pose().getX(),
+                  observation.pose().getY(),
+                  observation.pose().getRotation().getZ(),
+                  expected[i * 3],
+                  expected[i * 3 + 1],
+                  expected[i * 3 + 2],
+                  linearStdDev,
+                  angularStdDev);
+          maxInnovations[cameraIndex] = Math.max(maxInnovations[cameraIndex], innovation);
+          if (innovation > gateThreshold) {
+            rejectReason = RejectReason.INNOVATION;
+          }
+        }
       }
 
-      // Log camera metadata
-      Logger.recordOutput(
-          "Vision/Camera" + Integer.toString(cameraIndex) + "/TagPoses",
-          tagPoses.toArray(new Pose3d[0]));
-      Logger.recordOutput(
-          "Vision/Camera" + Integer.toString(cameraIndex) + "/RobotPoses",
-          robotPoses.toArray(new Pose3d[0]));
-      Logger.recordOutput(
-          "Vision/Camera" + Integer.toString(cameraIndex) + "/RobotPosesAccepted",
-          robotPosesAccepted.toArray(new Pose3d[0]));
-      Logger.recordOutput(
-          "Vision/Camera" + Integer.toString(cameraIndex) + "/RobotPosesRejected",
-          robotPosesRejected.toArray(new Pose3d[0]));
-      allTagPoses.addAll(tagPoses);
-      allRobotPoses.addAll(robotPoses);
-      allRobotPosesAccepted.addAll(robotPosesAccepted);
-      allRobotPosesRejected.addAll(robotPosesRejected);
+      // Add pose to log
+      robotPoses[cameraIndex].add(observation.pose());
+      if (rejectReason != null) {
+        robotPosesRejected[cameraIndex].add(observation.pose());
+        counts[rejectReason.ordinal()]++;
+        continue;
+      }
+      robotPosesAccepted[cameraIndex].add(observation.pose());
+
+      // Frames used in the joint solve are sent as part of its result instead
+      if (observation.timestamp() == jointFrameTimestamps[cameraIndex]) {
+        continue;
+      }
+
+      // Queue vision observation, sent in timestamp order once every camera is read
+      merger.add(
+          cameraIndex, observation.timestamp(), observation.pose(), linearStdDev, angularStdDev);
     }
+  }
 
-    // Log summary data
-    Logger.recordOutput("Vision/Summary/TagPoses", allTagPoses.toArray(new Pose3d[0]));
-    Logger.recordOutput("Vision/Summary/RobotPoses", allRobotPoses.toArray(new Pose3d[0]));
-    Logger.recordOutput(
-        "Vision/Summary/RobotPosesAccepted", allRobotPosesAccepted.toArray(new Pose3d[0]));
-    Logger.recordOutput(
-        "Vision/Summary/RobotPosesRejected", allRobotPosesRejected.toArray(new Pose3d[0]));
+  /**
+   * Decides whether the innovation gate applies this loop and, if so, samples the pose history at
+   * every observation's timestamp.
+   *
+   * <p>The gate is off while disabled, so the estimate can be seeded from vision before a match.
+   * It also opens once observations have been rejected for disagreeing with the history for
+   * {@code innovationGateRecoverySec} with nothing accepted in between, so an estimate that has
+   * drifted or been reset badly can't lock out the measurements that would correct it.
+   */
+  private void sampleExpectedPoses() {
+    var poseHistory = RobotState.getInstance().getPoseHistory();
+    gateActive =
+        !DriverStation.isDisabled()
+            && !poseHistory.isEmpty()
+            && !(Timer.getFPGATimestamp() - gatedSinceSec >= innovationGateRecoverySec);
+    gateThreshold = maxInnovationSigma.get();
+    if (!gateActive) return;
+
+    for (int cameraIndex = 0; cameraIndex < io.length; cameraIndex++) {
+      var observations = inputs[cameraIndex].poseObservations;
+      if (expectedPoses[cameraIndex].length < observations.length * 3) {
+        expectedPoses[cameraIndex] = new double[observations.length * 3];
+      }
+      double[] expected = expectedPoses[cameraIndex];
+      for (int i = 0; i < observations.length; i++) {
+        poseHistory.sample(observations[i].timestamp());
+        expected[i * 3] = poseHistory.getSampleX();
+        expected[i * 3 + 1] = poseHistory.getSampleY();
+        expected[i * 3 + 2] = poseHistory.getSampleTheta();
+      }
+    }
+  }
+
+  private int countInnovationRejections() {
+    int count = 0;
+    for (int i = 0; i < io.length; i++) {
+      count += rejectionCounts[i][RejectReason.INNOVATION.ordinal()];
+    }
+    return count;
+  }
+
+  /**
+   * Returns how far a measured pose is from the expected one, in standard deviations. Each axis's
+   * variance is the measurement's plus the odometry allowance from {@link VisionConstants}, since
+   * the history is itself only an estimate.
+   */
+  private static double innovation(
+      double x,
+      double y,
+      double theta,
+      double expectedX,
+      double expectedY,
+      double expectedTheta,
+      double linearStdDev,
+      double angularStdDev) {
+    double linearVariance =
+        linearStdDev * linearStdDev
+            + innovationOdometryLinearStdDev * innovationOdometryLinearStdDev;
+    double angularVariance =
+        angularStdDev * angularStdDev
+            + innovationOdometryAngularStdDev * innovationOdometryAngularStdDev;
+    double dx = x - expectedX;
+    double dy = y - expectedY;
+    double dTheta = MathUtil.angleModulus(theta - expectedTheta);
+    return Math.sqrt(
+        (dx * dx + dy * dy) / linearVariance + dTheta * dTheta / angularVariance);
+  }
+
+  /**
+   * Picks each camera's newest frame, and if at least two were taken within {@code
+   * multiCameraMaxFrameSpreadSec} of each other, solves the robot pose from all of their tag
+   * corners, warm-started from the pose history at the frames' mean timestamp.
+   *
+   * @return true if the solve succeeded; {@link #jointFrameTimestamps} then holds the frames used
+   */
+  private boolean solveMultiCamera() {
+    // Newest frame with corners from each camera with a known transform and calibration
+    double newestTimestamp = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < io.length; i++) {
+      jointFrameTimestamps[i] = Double.NaN;
+      if (!multiCameraSolver.hasCamera(i) || inputs[i].cameraIntrinsics.length != 4) continue;
+      for (var corner : inputs[i].tagCorners) {
+        if (!(corner.timestamp() <= jointFrameTimestamps[i])) {
+          jointFrameTimestamps[i] = corner.timestamp();
+        }
+      }
+      if (jointFrameTimestamps[i] > newestTimestamp) {
+        newestTimestamp = jointFrameTimestamps[i];
+      }
+    }
+
+    // Keep the frames taken close enough together to treat as simultaneous
+    int cameraCount = 0;
+    double timestampSum = 0.0;
+    double cameraFactorSum = 0.0;
+    for (int i = 0; i < io.length; i++) {
+      if (newestTimestamp - jointFrameTimestamps[i] <= multiCameraMaxFrameSpreadSec) {
+        cameraCount++;
+        timestampSum += jointFrameTimestamps[i];
+        cameraFactorSum += i < cameraStdDevFactors.length ? cameraStdDevFactors[i] : 1.0;
+      } else {
+        jointFrameTimestamps[i] = Double.NaN;
+      }
+    }
+    if (cameraCount < 2) return false;
+    jointTimestamp = timestampSum / cameraCount;
+
+    var poseHistory = RobotState.getInstance().getPoseHistory();
+    if (!poseHistory.sample(jointTimestamp)) return false;
+    jointExpectedX = poseHistory.getSampleX();
+    jointExpectedY = poseHistory.getSampleY();
+    jointExpectedTheta = poseHistory.getSampleTheta();
+
+    multiCameraSolver.reset();
+    for (int i = 0; i < io.length; i++) {
+      if (Double.isNaN(jointFrameTimestamps[i])) continue;
+      for (var corner : inputs[i].tagCorners) {
+        if (corner.timestamp() == jointFrameTimestamps[i]) {
+          multiCameraSolver.addCorner(
+              i,
+              inputs[i].cameraIntrinsics,
+              corner.tagId(),
+              corner.corner(),
+              corner.x(),
+              corner.y());
+        }
+      }
+    }
+    boolean solved =
+        multiCameraSolver.solve(jointExpectedX, jointExpectedY, jointExpectedTheta)
+            && multiCameraSolver.getRmsErrorPx() <= multiCameraMaxRmsErrorPx;
+    Logger.recordOutput("Vision/MultiCamera/Cameras", cameraCount);
+    Logger.recordOutput("Vision/MultiCamera/Corners", multiCameraSolver.getCornerCount());
+    Logger.recordOutput("Vision/MultiCamera/SolveMs", multiCameraSolver.getSolveMs());
+    Logger.recordOutput("Vision/MultiCamera/Iterations", multiCameraSolver.getIterations());
+    Logger.recordOutput("Vision/MultiCamera/RmsErrorPx", multiCameraSolver.getRmsErrorPx());
+    Logger.recordOutput("Vision/MultiCamera/Solved", solved);
+    if (!solved) return false;
+
+    // Same heuristic as single cameras, counting each camera's view of a tag as one tag
+    int tagCount = 0;
+    double totalTagDistance = 0.0;
+    for (int i = 0; i < io.length; i++) {
+      if (Double.isNaN(jointFrameTimestamps[i])) continue;
+      for (var corner : inputs[i].tagCorners) {
+        if (corner.timestamp() == jointFrameTimestamps[i]
+            && corner.corner() == 0
+            && corner.tagId() >= 0
+            && corner.tagId() < tagPosesById.length
+            && tagPosesById[corner.tagId()] != null) {
+          Pose3d tagPose = tagPosesById[corner.tagId()];
+          tagCount++;
+          totalTagDistance +=
+              Math.hypot(
+                  tagPose.getX() - multiCameraSolver.getX(),
+                  tagPose.getY() - multiCameraSolver.getY());
+        }
+      }
+    }
+    if (tagCount == 0) return false;
+    double stdDevFactor =
+        Math.pow(totalTagDistance / tagCount, 2.0) / tagCount * cameraFactorSum / cameraCount;
+    jointLinearStdDev = linearStdDevBaseline * stdDevFactor;
+    jointAngularStdDev = angularStdDevBaseline * stdDevFactor;
+    return true;
+  }
+
+  private int firstJointCamera() {
+    for (int i = 0; i < io.length; i++) {
+      if (!Double.isNaN(jointFrameTimestamps[i])) return i;
+    }
+    return 0;
+  }
+
+  // Wraps a camera's task so it only runs if not cancelled first, and records how it ended
+  private Runnable workerTask(int cameraIndex, Runnable task) {
+    return () -> {
+      if (!taskStates.compareAndSet(cameraIndex, taskQueued, taskRunning)) return;
+      try {
+        task.run();
+      } catch (RuntimeException | Error e) {
+        taskStates.set(cameraIndex, taskFailed);
+        throw e;
+      }
+      taskStates.set(cameraIndex, taskFinished);
+    };
+  }
+
+  private Future<?> submit(int cameraIndex, Runnable task) {
+    if (workerPool == null) {
+      workerPool =
+          Executors.newFixedThreadPool(
+              Math.min(io.length, Runtime.getRuntime().availableProcessors()),
+              runnable -> {
+                Thread thread = new Thread(runnable, "VisionWorker");
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+    taskStates.set(cameraIndex, taskQueued);
+    return workerPool.submit(task);
+  }
+
+  /**
+   * Waits for every submitted task. A task that failed is rerun on the main thread; it has
+   * finished by then, so only one thread touches the camera.
+   *
+   * <p>If interrupted, each remaining task is cancelled. One that never started is run here
+   * instead. One already running can't be stopped, so it is waited for rather than rerun
+   * alongside it. The interrupt is restored afterwards.
+   */
+  private void awaitAll(Runnable[] tasks) {
+    boolean interrupted = false;
+    for (int i = 0; i < futures.length; i++) {
+      if (futures[i] == null) continue;
+      Throwable failure = null;
+      if (!interrupted) {
+        try {
+          futures[i].get();
+        } catch (ExecutionException e) {
+          failure = e.getCause();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        futures[i].cancel(false);
+        if (!taskStates.compareAndSet(i, taskQueued, taskCancelled)) {
+          while (taskStates.get(i) == taskRunning) {
+            Thread.yield();
+          }
+        }
+      }
+      futures[i] = null;
+
+      int state = taskStates.get(i);
+      if (state == taskFailed) {
+        DriverStation.reportWarning(
+            "Parallel vision processing failed, running camera "
+                + i
+                + " serially"
+                + (failure != null ? ": " + failure : ""),
+            false);
+        tasks[i].run();
+      } else if (state == taskCancelled) {
+        tasks[i].run();
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
   }
 
   @FunctionalInterface
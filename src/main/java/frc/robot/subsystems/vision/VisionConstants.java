@@ -32,10 +32,23 @@ public class VisionConstants {
   public static Transform3d robotToCamera1 =
       new Transform3d(-0.2, 0.0, 0.2, new Rotation3d(0.0, -0.4, Math.PI));
 
+  // Robot to camera transforms by camera index, for the multi-camera solve
+  public static Transform3d[] robotToCameras = new Transform3d[] {robotToCamera0, robotToCamera1};
+
   // Basic filtering thresholds
   public static double maxAmbiguity = 0.3;
   public static double maxZError = 0.75;
 
+  // Multi-camera solve thresholds
+  public static double multiCameraMaxFrameSpreadSec = 0.01; // Max time between cameras' frames
+  public static double multiCameraMaxRmsErrorPx = 4.0; // Max reprojection error to accept
+
+  // Innovation gate: how far the pose history may have drifted, and how long observations may be
+  // rejected by the gate with nothing accepted before it opens to let the estimate recover
+  public static double innovationOdometryLinearStdDev = 0.15; // Meters
+  public static double innovationOdometryAngularStdDev = 0.1; // Radians
+  public static double innovationGateRecoverySec = 1.0;
+
   // Standard deviation baselines, for 1 meter distance and 1 tag
   // (Adjusted automatically based on distance and # of tags)
   public static double linearStdDevBaseline = 0.02; // Meters
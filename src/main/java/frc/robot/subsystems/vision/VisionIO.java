@@ -19,6 +19,8 @@ public interface VisionIO {
         new TargetObservation(Rotation2d.kZero, Rotation2d.kZero);
     public PoseObservation[] poseObservations = new PoseObservation[0];
     public int[] tagIds = new int[0];
+    public TagCorner[] tagCorners = new TagCorner[0];
+    public double[] cameraIntrinsics = new double[0]; // fx, fy, cx, cy; empty if uncalibrated
   }
 
   /** Represents the angle to a simple target, not used for pose estimation. */
@@ -33,9 +35,20 @@ public interface VisionIO {
       double averageTagDistance,
       PoseObservationType type) {}
 
+  /** Represents one detected corner of an AprilTag, in pixels, used for multi-camera solves. */
+  public static record TagCorner(double timestamp, int tagId, int corner, double x, double y) {}
+
   public static enum PoseObservationType {
     PHOTONVISION
   }
 
   public default void updateInputs(VisionIOInputs inputs) {}
+
+  /**
+   * Whether {@link #updateInputs} may run on a worker thread at the same time as other cameras'.
+   * Only true when the implementation shares no state with other cameras or the main loop.
+   */
+  public default boolean supportsParallelUpdate() {
+    return false;
+  }
 }
@@ -12,6 +12,7 @@ import static frc.robot.subsystems.vision.VisionConstants.*;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform3d;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -41,6 +42,7 @@ public class VisionIOPhotonVision implements VisionIO {
     // Read new camera observations
     Set<Short> tagIds = new HashSet<>();
     List<PoseObservation> poseObservations = new LinkedList<>();
+    List<TagCorner> tagCorners = new ArrayList<>();
     for (var result : camera.getAllUnreadResults()) {
       // Update latest target observation
       if (result.hasTargets()) {
@@ -52,6 +54,20 @@ public class VisionIOPhotonVision implements VisionIO {
         inputs.latestTargetObservation = new TargetObservation(Rotation2d.kZero, Rotation2d.kZero);
       }
 
+      // Add tag corners
+      for (var target : result.targets) {
+        var corners = target.getDetectedCorners();
+        for (int corner = 0; corner < corners.size(); corner++) {
+          tagCorners.add(
+              new TagCorner(
+                  result.getTimestampSeconds(),
+                  target.fiducialId,
+                  corner,
+                  corners.get(corner).x,
+                  corners.get(corner).y));
+        }
+      }
+
       // Add pose observation
       if (result.multitagResult.isPresent()) { // Multitag result
         var multitagResult = result.multitagResult.get();
@@ -115,6 +131,18 @@ public class VisionIOPhotonVision implements VisionIO {
       inputs.poseObservations[i] = poseObservations.get(i);
     }
 
+    // Save tag corners and calibration to inputs object
+    inputs.tagCorners = tagCorners.toArray(new TagCorner[0]);
+    inputs.cameraIntrinsics =
+        camera
+            .getCameraMatrix()
+            .map(
+                matrix ->
+                    new double[] {
+                      matrix.get(0, 0), matrix.get(1, 1), matrix.get(0, 2), matrix.get(1, 2)
+                    })
+            .orElse(new double[0]);
+
     // Save tag IDs to inputs objects
     inputs.tagIds = new int[tagIds.size()];
     int i = 0;
@@ -122,4 +150,10 @@ public class VisionIOPhotonVision implements VisionIO {
       inputs.tagIds[i++] = id;
     }
   }
+
+  @Override
+  public boolean supportsParallelUpdate() {
+    // Each instance only reads its own camera
+    return true;
+  }
 }
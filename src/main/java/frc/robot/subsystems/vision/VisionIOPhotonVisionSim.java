@@ -77,4 +77,10 @@ public class VisionIOPhotonVisionSim extends VisionIOPhotonVision {
     visionSim.update(poseSupplier.get());
     super.updateInputs(inputs);
   }
+
+  @Override
+  public boolean supportsParallelUpdate() {
+    // Every camera updates the shared VisionSystemSim
+    return false;
+  }
 }
@@ -0,0 +1,204 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.subsystems.vision.Vision.VisionConsumer;
+import java.util.Arrays;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Collects one loop's accepted vision observations from every camera and hands them to the pose
+ * estimator in timestamp order.
+ *
+ * <p>{@code SwerveDrivePoseEstimator} discards every vision update newer than one it is given, so
+ * feeding cameras one after another throws away corrections whenever a later camera saw an older
+ * frame. Each camera's observations are sorted (they normally already are), then the cameras are
+ * merged by always taking the oldest head. Ties go to the lower camera index, so the order is
+ * deterministic.
+ *
+ * <p>With {@code fuseSameTimestamp}, observations from different cameras within {@code
+ * fusionToleranceSec} of each other are combined into one inverse-variance weighted measurement.
+ */
+class VisionMeasurementMerger {
+  private static final boolean fuseSameTimestamp = false;
+  private static final double fusionToleranceSec = 0.001;
+
+  private final int[] counts;
+  private final int[] heads;
+  private final double[][] timestamps;
+  private final Pose3d[][] poses;
+  private final double[][] linearStdDevs;
+  private final double[][] angularStdDevs;
+
+  // Newest timestamp sent to the estimator, to count inversions across loops
+  private double lastSentTimestamp = Double.NEGATIVE_INFINITY;
+
+  VisionMeasurementMerger(int cameraCount) {
+    counts = new int[cameraCount];
+    heads = new int[cameraCount];
+    timestamps = new double[cameraCount][4];
+    poses = new Pose3d[cameraCount][4];
+    linearStdDevs = new double[cameraCount][4];
+    angularStdDevs = new double[cameraCount][4];
+  }
+
+  /** Adds an accepted observation. May be called concurrently for different cameras. */
+  void add(
+      int cameraIndex,
+      double timestamp,
+      Pose3d pose,
+      double linearStdDev,
+      double angularStdDev) {
+    int count = counts[cameraIndex];
+    if (count == timestamps[cameraIndex].length) {
+      int capacity = count * 2;
+      timestamps[cameraIndex] = Arrays.copyOf(timestamps[cameraIndex], capacity);
+      poses[cameraIndex] = Arrays.copyOf(poses[cameraIndex], capacity);
+      linearStdDevs[cameraIndex] = Arrays.copyOf(linearStdDevs[cameraIndex], capacity);
+      angularStdDevs[cameraIndex] = Arrays.copyOf(angularStdDevs[cameraIndex], capacity);
+    }
+
+    // Insertion sort; observations usually arrive in order, making this a single comparison
+    int i = count;
+    while (i > 0 && timestamps[cameraIndex][i - 1] > timestamp) {
+      timestamps[cameraIndex][i] = timestamps[cameraIndex][i - 1];
+      poses[cameraIndex][i] = poses[cameraIndex][i - 1];
+      linearStdDevs[cameraIndex][i] = linearStdDevs[cameraIndex][i - 1];
+      angularStdDevs[cameraIndex][i] = angularStdDevs[cameraIndex][i - 1];
+      i--;
+    }
+    timestamps[cameraIndex][i] = timestamp;
+    poses[cameraIndex][i] = pose;
+    linearStdDevs[cameraIndex][i] = linearStdDev;
+    angularStdDevs[cameraIndex][i] = angularStdDev;
+    counts[cameraIndex] = count + 1;
+  }
+
+  /**
+   * Sends every collected observation to the consumer in timestamp order, logs how many would
+   * have been out of order without merging, and clears the merger for the next loop.
+   */
+  void flush(VisionConsumer consumer) {
+    // Camera-by-camera order, as the observations were sent before merging
+    int unmergedInversions = 0;
+    double unmergedNewest = lastSentTimestamp;
+    for (int camera = 0; camera < counts.length; camera++) {
+      for (int i = 0; i < counts[camera]; i++) {
+        if (timestamps[camera][i] < unmergedNewest) {
+          unmergedInversions++;
+        } else {
+          unmergedNewest = timestamps[camera][i];
+        }
+      }
+    }
+
+    int sent = 0;
+    int fused = 0;
+    int mergedInversions = 0;
+    while (true) {
+      int oldest = -1;
+      for (int camera = 0; camera < counts.length; camera++) {
+        if (heads[camera] < counts[camera]
+            && (oldest < 0
+                || timestamps[camera][heads[camera]] < timestamps[oldest][heads[oldest]])) {
+          oldest = camera;
+        }
+      }
+      if (oldest < 0) break;
+
+      double timestamp = timestamps[oldest][heads[oldest]];
+      if (timestamp < lastSentTimestamp) {
+        mergedInversions++;
+      }
+      if (fuseSameTimestamp) {
+        fused += sendFused(consumer, timestamp);
+      } else {
+        int i = heads[oldest]++;
+        send(
+            consumer,
+            timestamp,
+            poses[oldest][i].getX(),
+            poses[oldest][i].getY(),
+            poses[oldest][i].getRotation().getZ(),
+            linearStdDevs[oldest][i],
+            angularStdDevs[oldest][i]);
+      }
+      lastSentTimestamp = Math.max(lastSentTimestamp, timestamp);
+      sent++;
+    }
+
+    Logger.recordOutput("Vision/Merge/Sent", sent);
+    Logger.recordOutput("Vision/Merge/Fused", fused);
+    Logger.recordOutput("Vision/Merge/OutOfOrderUnmerged", unmergedInversions);
+    Logger.recordOutput("Vision/Merge/OutOfOrderMerged", mergedInversions);
+
+    for (int camera = 0; camera < counts.length; camera++) {
+      clear(camera);
+    }
+  }
+
+  /**
+   * Drops a camera's collected observations. Only touches that camera's state, so different
+   * cameras may be added to and cleared from different threads.
+   */
+  void clear(int cameraIndex) {
+    counts[cameraIndex] = 0;
+    heads[cameraIndex] = 0;
+    Arrays.fill(poses[cameraIndex], null);
+  }
+
+  // Combines the head of every camera within the fusion tolerance; returns the number combined
+  private int sendFused(VisionConsumer consumer, double timestamp) {
+    double linearWeightSum = 0.0;
+    double angularWeightSum = 0.0;
+    double x = 0.0;
+    double y = 0.0;
+    double sin = 0.0;
+    double cos = 0.0;
+    double timestampSum = 0.0;
+    int combined = 0;
+    for (int camera = 0; camera < counts.length; camera++) {
+      int i = heads[camera];
+      if (i >= counts[camera] || timestamps[camera][i] - timestamp > fusionToleranceSec) {
+        continue;
+      }
+      heads[camera]++;
+      double linearWeight = 1.0 / (linearStdDevs[camera][i] * linearStdDevs[camera][i]);
+      double angularWeight = 1.0 / (angularStdDevs[camera][i] * angularStdDevs[camera][i]);
+      double theta = poses[camera][i].getRotation().getZ();
+      x += linearWeight * poses[camera][i].getX();
+      y += linearWeight * poses[camera][i].getY();
+      sin += angularWeight * Math.sin(theta);
+      cos += angularWeight * Math.cos(theta);
+      linearWeightSum += linearWeight;
+      angularWeightSum += angularWeight;
+      timestampSum += timestamps[camera][i];
+      combined++;
+    }
+    send(
+        consumer,
+        timestampSum / combined,
+        x / linearWeightSum,
+        y / linearWeightSum,
+        Math.atan2(sin, cos),
+        1.0 / Math.sqrt(linearWeightSum),
+        1.0 / Math.sqrt(angularWeightSum));
+    return combined > 1 ? combined : 0;
+  }
+
+  private static void send(
+      VisionConsumer consumer,
+      double timestamp,
+      double x,
+      double y,
+      double theta,
+      double linearStdDev,
+      double angularStdDev) {
+    consumer.accept(
+        new Pose2d(x, y, new Rotation2d(theta)),
+        timestamp,
+        VecBuilder.fill(linearStdDev, linearStdDev, angularStdDev));
+  }
+}
@@ -0,0 +1,38 @@
+package frc.robot.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the number of bytes the current thread has allocated, for measuring GC pressure of a code
+ * path. Take a reading before and after the section and subtract.
+ *
+ * <p>Backed by HotSpot's per-thread allocation counter, which is cheap enough to read every loop.
+ * On a JVM without it, {@link #getCurrentThreadAllocatedBytes()} returns -1.
+ */
+public class AllocationCounter {
+  private AllocationCounter() {}
+
+  private static final com.sun.management.ThreadMXBean threadBean;
+
+  static {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean sunBean
+        && sunBean.isThreadAllocatedMemorySupported()) {
+      sunBean.setThreadAllocatedMemoryEnabled(true);
+      threadBean = sunBean;
+    } else {
+      threadBean = null;
+    }
+  }
+
+  /** Returns whether allocation counting is available on this JVM. */
+  public static boolean isSupported() {
+    return threadBean != null;
+  }
+
+  /** Returns the total bytes allocated by the calling thread so far, or -1 if unsupported. */
+  public static long getCurrentThreadAllocatedBytes() {
+    return threadBean != null ? threadBean.getCurrentThreadAllocatedBytes() : -1;
+  }
+}
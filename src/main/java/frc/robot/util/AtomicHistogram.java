@@ -0,0 +1,67 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket histogram that one thread records into while another reads it, without locks.
+ *
+ * <p>Bucket {@code i} counts values below {@code upperBounds[i]} that aren't in an earlier bucket;
+ * one extra bucket at the end counts everything at or above the last bound. Counts only grow, so
+ * two snapshots can be subtracted to get the distribution over an interval.
+ */
+public class AtomicHistogram {
+  private final double[] upperBounds;
+  private final AtomicLongArray counts;
+  private final AtomicLong maxBits = new AtomicLong(Double.doubleToLongBits(0.0));
+
+  /**
+   * Create an empty histogram.
+   *
+   * @param upperBounds exclusive upper bound of each bucket, in increasing order
+   */
+  public AtomicHistogram(double... upperBounds) {
+    this.upperBounds = upperBounds.clone();
+    counts = new AtomicLongArray(upperBounds.length + 1);
+  }
+
+  /** Adds a value. Only one thread may record at a time. */
+  public void record(double value) {
+    int bucket = 0;
+    while (bucket < upperBounds.length && value >= upperBounds[bucket]) {
+      bucket++;
+    }
+    counts.getAndIncrement(bucket);
+    if (value > Double.longBitsToDouble(maxBits.get())) {
+      maxBits.set(Double.doubleToLongBits(value));
+    }
+  }
+
+  /** Returns a new array with the count of every bucket, including the final overflow bucket. */
+  public long[] getCounts() {
+    long[] snapshot = new long[counts.length()];
+    for (int i = 0; i < snapshot.length; i++) {
+      snapshot[i] = counts.get(i);
+    }
+    return snapshot;
+  }
+
+  /** Returns the total number of values recorded. */
+  public long getTotalCount() {
+    long total = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      total += counts.get(i);
+    }
+    return total;
+  }
+
+  /** Returns the largest value recorded since the last call, then starts a new maximum. */
+  public double getAndResetMax() {
+    return Double.longBitsToDouble(maxBits.getAndSet(Double.doubleToLongBits(0.0)));
+  }
+
+  /** Returns a copy of the bucket upper bounds. */
+  public double[] getUpperBounds() {
+    return upperBounds.clone();
+  }
+}
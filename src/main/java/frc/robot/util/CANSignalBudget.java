@@ -0,0 +1,171 @@
+package frc.robot.util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Startup estimate of the CAN frame load from every status signal registered with a rate through
+ * {@link PhoenixUtil#registerSignals(CANBus, ParentDevice, double, Priority, BaseStatusSignal...)}.
+ *
+ * <p>Each signal is counted as one frame per update. Phoenix packs some signals into shared frames,
+ * so this is an upper bound. Utilization is frames/sec times an approximate time on the wire per
+ * frame for the bus type. When a bus is over {@code maxUtilization}, a warning is reported and, if
+ * {@code autoDegrade} is set, the rates of its {@link Priority#LOW} signals are halved (down to 4
+ * Hz, Phoenix's minimum) until it fits. Later rate changes should go through {@link
+ * #getBudgetedHz(BaseStatusSignal, double)} so they keep those reductions.
+ */
+public class CANSignalBudget {
+  private CANSignalBudget() {}
+
+  /** How important a signal's update rate is. Only LOW signals are degraded. */
+  public enum Priority {
+    /** Feeds control or odometry. */
+    HIGH,
+
+    /** Used for control decisions or logged at full rate. */
+    NORMAL,
+
+    /** Diagnostics only, such as temperatures and supply current. */
+    LOW
+  }
+
+  private static final double maxUtilization = 0.7;
+  private static final boolean autoDegrade = true;
+  private static final double minDegradedFrequencyHz = 4.0;
+
+  // Approximate time on the wire for one 8 byte status frame: CAN 2.0 at 1 Mbps with bit
+  // stuffing, and CAN FD with 1 Mbps arbitration and an 8 Mbps data phase.
+  private static final double can2FrameSec = 130e-6;
+  private static final double canFdFrameSec = 45e-6;
+
+  private static class Entry {
+    final String device;
+    final BaseStatusSignal signal;
+    final Priority priority;
+    double frequencyHz;
+
+    Entry(String device, BaseStatusSignal signal, Priority priority, double frequencyHz) {
+      this.device = device;
+      this.signal = signal;
+      this.priority = priority;
+      this.frequencyHz = frequencyHz;
+    }
+  }
+
+  private static final Map<String, List<Entry>> entriesByBus = new LinkedHashMap<>();
+  private static final Map<String, Boolean> busIsFD = new LinkedHashMap<>();
+  // Rates the budget reduced signals to, which later rate changes must not exceed
+  private static final Map<BaseStatusSignal, Double> degradedHz = new IdentityHashMap<>();
+
+  /** Records signals and their requested rate. Called by PhoenixUtil when setting the rate. */
+  static void register(
+      CANBus canBus,
+      ParentDevice device,
+      double frequencyHz,
+      Priority priority,
+      BaseStatusSignal... signals) {
+    String busName = canBus.getName();
+    busIsFD.put(busName, canBus.isNetworkFD());
+    List<Entry> entries = entriesByBus.computeIfAbsent(busName, name -> new ArrayList<>());
+    String deviceName = device.getClass().getSimpleName() + " " + device.getDeviceID();
+    for (BaseStatusSignal signal : signals) {
+      entries.add(new Entry(deviceName, signal, priority, frequencyHz));
+    }
+  }
+
+  /**
+   * Computes and logs the load of each bus, degrading LOW priority signals on buses over budget.
+   * Call once at startup, after every subsystem has registered its signals.
+   */
+  public static void applyBudget() {
+    for (Map.Entry<String, List<Entry>> bus : entriesByBus.entrySet()) {
+      String busName = bus.getKey();
+      List<Entry> entries = bus.getValue();
+      double frameSec = busIsFD.get(busName) ? canFdFrameSec : can2FrameSec;
+
+      double utilization = framesPerSec(entries) * frameSec;
+      if (utilization > maxUtilization) {
+        int degraded = autoDegrade ? degrade(entries, frameSec) : 0;
+        double degradedUtilization = framesPerSec(entries) * frameSec;
+        DriverStation.reportWarning(
+            String.format(
+                "CAN bus \"%s\" is over budget: %.0f%% estimated utilization (budget %.0f%%)%s",
+                busName,
+                utilization * 100.0,
+                maxUtilization * 100.0,
+                degraded > 0
+                    ? String.format(
+                        ", reduced %d low priority signals to reach %.0f%%",
+                        degraded, degradedUtilization * 100.0)
+                    : ""),
+            false);
+        utilization = degradedUtilization;
+      }
+
+      String[] signalDescriptions = new String[entries.size()];
+      for (int i = 0; i < entries.size(); i++) {
+        Entry entry = entries.get(i);
+        signalDescriptions[i] =
+            String.format(
+                "%s %s %.0f Hz %s",
+                entry.device, entry.signal.getName(), entry.frequencyHz, entry.priority);
+      }
+      String prefix = "CANBudget/" + (busName.isEmpty() ? "rio" : busName);
+      Logger.recordOutput(prefix + "/FramesPerSec", framesPerSec(entries));
+      Logger.recordOutput(prefix + "/Utilization", utilization);
+      Logger.recordOutput(prefix + "/Signals", signalDescriptions);
+    }
+  }
+
+  /**
+   * Caps a new rate for a signal at the rate the budget reduced it to, if it did. Signals the
+   * budget left alone are not capped, so a faster profile can still raise them.
+   *
+   * @param signal the signal whose rate is changing
+   * @param frequencyHz the requested rate
+   * @return the rate to apply, in Hz
+   */
+  public static double getBudgetedHz(BaseStatusSignal signal, double frequencyHz) {
+    Double budgetedHz = degradedHz.get(signal);
+    return budgetedHz == null ? frequencyHz : Math.min(frequencyHz, budgetedHz);
+  }
+
+  private static double framesPerSec(List<Entry> entries) {
+    double frames = 0.0;
+    for (Entry entry : entries) {
+      frames += entry.frequencyHz;
+    }
+    return frames;
+  }
+
+  // Halves LOW priority rates until the bus fits or they're all at the minimum.
+  private static int degrade(List<Entry> entries, double frameSec) {
+    List<Entry> changed = new ArrayList<>();
+    boolean reduced = true;
+    while (reduced && framesPerSec(entries) * frameSec > maxUtilization) {
+      reduced = false;
+      for (Entry entry : entries) {
+        if (entry.priority == Priority.LOW && entry.frequencyHz > minDegradedFrequencyHz) {
+          entry.frequencyHz = Math.max(minDegradedFrequencyHz, entry.frequencyHz / 2.0);
+          if (!changed.contains(entry)) {
+            changed.add(entry);
+          }
+          reduced = true;
+        }
+      }
+    }
+    for (Entry entry : changed) {
+      entry.signal.setUpdateFrequency(entry.frequencyHz);
+      degradedHz.put(entry.signal, entry.frequencyHz);
+    }
+    return changed.size();
+  }
+}
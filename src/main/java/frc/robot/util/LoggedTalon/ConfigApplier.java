@@ -0,0 +1,175 @@
+package frc.robot.util.LoggedTalon;
+
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.ParentConfiguration;
+import com.ctre.phoenix6.configs.SlotConfigs;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.util.AtomicHistogram;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Applies configs to Phoenix devices on a background thread, so {@link
+ * LoggedTalon#quickApplyConfig(SlotConfigs)} and friends never block the main loop.
+ *
+ * <p>Each device has one {@link Slot} per config type. A slot holds at most one pending config:
+ * submitting again before it is applied replaces the pending value, and submitting a value equal to
+ * the last one submitted does nothing. Slots are applied in the order they first became pending, so
+ * a full device config submitted after a partial one may still be applied first if the partial one
+ * was already waiting.
+ *
+ * <p>Configs therefore reach the device some time after control requests sent in the same loop.
+ * Anything a move depends on, like a slower profile near a hard stop, belongs in the control
+ * request instead.
+ */
+public class ConfigApplier {
+  private ConfigApplier() {}
+
+  private static final int applyAttempts = 3;
+  private static final double[] latencyBucketUpperBoundsMs = {
+    1.0, 2.0, 5.0, 10.0, 20.0, 50.0, 100.0, 200.0, 500.0
+  };
+
+  private static final BlockingQueue<Slot<?>> queue = new LinkedBlockingQueue<>();
+  private static final AtomicHistogram latencyMs =
+      new AtomicHistogram(latencyBucketUpperBoundsMs);
+  private static final AtomicLong failures = new AtomicLong();
+  private static long deduplicated = 0; // Main thread only
+  private static Thread thread = null;
+
+  /**
+   * One config type on one device.
+   *
+   * @param <C> the config type
+   */
+  public static class Slot<C extends ParentConfiguration> {
+    private final String name;
+    private final Supplier<C> factory;
+    private final BiPredicate<C, C> equal;
+    private final Function<C, StatusCode> apply;
+    private final AtomicReference<C> pending = new AtomicReference<>();
+    private volatile long pendingSinceNs = 0;
+    private volatile C lastSubmitted = null;
+
+    /**
+     * Create a slot.
+     *
+     * @param name Name for warnings, like the device and config type
+     * @param factory Creates an empty config to copy submitted configs into
+     * @param equal Whether two configs would configure the device identically
+     * @param apply Applies a config to the device, such as {@code talon.getConfigurator()::apply}
+     */
+    public Slot(
+        String name, Supplier<C> factory, BiPredicate<C, C> equal, Function<C, StatusCode> apply) {
+      this.name = name;
+      this.factory = factory;
+      this.equal = equal;
+      this.apply = apply;
+    }
+
+    /**
+     * Queue a config to be applied. The config is copied, so the caller may keep mutating it. Call
+     * from the main loop only.
+     *
+     * @param config The config to apply
+     */
+    public void submit(C config) {
+      C last = lastSubmitted;
+      if (last != null && equal.test(last, config)) {
+        deduplicated++;
+        return;
+      }
+      C snapshot = factory.get();
+      snapshot.deserialize(config.serialize());
+      lastSubmitted = snapshot;
+      if (pending.getAndSet(snapshot) == null) {
+        pendingSinceNs = System.nanoTime();
+        ensureStarted();
+        queue.add(this);
+      }
+    }
+
+    // Runs on the applier thread
+    private void applyPending() {
+      C config = pending.getAndSet(null);
+      if (config == null) return;
+      long startNs = pendingSinceNs;
+      StatusCode status = StatusCode.OK;
+      for (int i = 0; i < applyAttempts; i++) {
+        status = apply.apply(config);
+        if (status.isOK()) break;
+      }
+      latencyMs.record((System.nanoTime() - startNs) / 1e6);
+      if (!status.isOK()) {
+        failures.incrementAndGet();
+        // Let the next identical submission try again
+        lastSubmitted = null;
+        DriverStation.reportWarning("Failed to apply " + name + ": " + status, false);
+      }
+    }
+  }
+
+  private static synchronized void ensureStarted() {
+    if (thread != null) return;
+    thread =
+        new Thread(
+            () -> {
+              while (true) {
+                try {
+                  queue.take().applyPending();
+                } catch (InterruptedException e) {
+                  return;
+                }
+              }
+            },
+            "LoggedTalonConfigApplier");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Logs queue depth, apply latency and counters. Call once per loop from the main loop. */
+  public static void log() {
+    Logger.recordOutput("ConfigApplier/QueueDepth", queue.size());
+    Logger.recordOutput("ConfigApplier/LatencyHistogramBoundsMs", latencyBucketUpperBoundsMs);
+    Logger.recordOutput("ConfigApplier/LatencyHistogram", latencyMs.getCounts());
+    Logger.recordOutput("ConfigApplier/MaxLatencyMs", latencyMs.getAndResetMax());
+    Logger.recordOutput("ConfigApplier/Applied", latencyMs.getTotalCount());
+    Logger.recordOutput("ConfigApplier/Deduplicated", deduplicated);
+    Logger.recordOutput("ConfigApplier/Failures", failures.get());
+  }
+
+  /** Compares the gains and feedforward settings that tuning changes, without allocating. */
+  public static boolean slotEquals(SlotConfigs a, SlotConfigs b) {
+    return a.SlotNumber == b.SlotNumber
+        && a.kP == b.kP
+        && a.kI == b.kI
+        && a.kD == b.kD
+        && a.kS == b.kS
+        && a.kV == b.kV
+        && a.kA == b.kA
+        && a.kG == b.kG
+        && a.GravityType == b.GravityType
+        && a.StaticFeedforwardSign == b.StaticFeedforwardSign;
+  }
+
+  /** Compares every Motion Magic setting, without allocating. */
+  public static boolean motionMagicEquals(MotionMagicConfigs a, MotionMagicConfigs b) {
+    return a.MotionMagicCruiseVelocity == b.MotionMagicCruiseVelocity
+        && a.MotionMagicAcceleration == b.MotionMagicAcceleration
+        && a.MotionMagicJerk == b.MotionMagicJerk
+        && a.MotionMagicExpo_kV == b.MotionMagicExpo_kV
+        && a.MotionMagicExpo_kA == b.MotionMagicExpo_kA;
+  }
+
+  /** Compares the serialized form of two configs. Allocates, so use for infrequent configs only. */
+  public static boolean serializedEquals(ParentConfiguration a, ParentConfiguration b) {
+    return a.serialize().equals(b.serialize());
+  }
+}
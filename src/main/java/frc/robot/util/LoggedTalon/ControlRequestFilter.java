@@ -0,0 +1,109 @@
+package frc.robot.util.LoggedTalon;
+
+import com.ctre.phoenix6.controls.ControlRequest;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers the last control request sent to a device so identical requests can be skipped.
+ *
+ * <p>Requests are usually mutable objects reused every loop, so they are compared by value: every
+ * public instance field of the request class, read through cached reflection. Primitive fields are
+ * compared without boxing, so a check doesn't allocate once a request class has been seen.
+ * Non-primitive fields (enums in Phoenix's requests) are compared with {@link Object#equals}.
+ *
+ * <p>Not thread safe. Use from the main loop only.
+ */
+class ControlRequestFilter {
+  private static final Map<Class<?>, Field[]> fieldsByClass = new HashMap<>();
+
+  private Class<?> lastClass = null;
+  private long[] lastPrimitives = new long[0];
+  private Object[] lastObjects = new Object[0];
+  private long lastSentUs = 0;
+  private boolean reflectionFailed = false;
+
+  /**
+   * Check whether a request needs to be sent, and remember it if so.
+   *
+   * @param request The outgoing request
+   * @param nowUs The current time, in microseconds
+   * @param keepAliveUs Send an unchanged request anyway when this long has passed since the last
+   *     send, in microseconds
+   * @return true if the request differs from the last one sent or the keep-alive has expired
+   */
+  boolean shouldSend(ControlRequest request, long nowUs, long keepAliveUs) {
+    if (reflectionFailed) return true;
+    Field[] fields = getFields(request.getClass());
+    try {
+      if (request.getClass() == lastClass
+          && nowUs - lastSentUs < keepAliveUs
+          && matches(request, fields)) {
+        return false;
+      }
+      remember(request, fields);
+    } catch (IllegalAccessException e) {
+      reflectionFailed = true;
+    }
+    lastSentUs = nowUs;
+    return true;
+  }
+
+  private boolean matches(ControlRequest request, Field[] fields) throws IllegalAccessException {
+    for (int i = 0; i < fields.length; i++) {
+      Field field = fields[i];
+      if (field.getType().isPrimitive()) {
+        if (readPrimitive(request, field) != lastPrimitives[i]) return false;
+      } else if (!Objects.equals(field.get(request), lastObjects[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void remember(ControlRequest request, Field[] fields) throws IllegalAccessException {
+    if (lastPrimitives.length < fields.length) {
+      lastPrimitives = new long[fields.length];
+      lastObjects = new Object[fields.length];
+    }
+    for (int i = 0; i < fields.length; i++) {
+      Field field = fields[i];
+      if (field.getType().isPrimitive()) {
+        lastPrimitives[i] = readPrimitive(request, field);
+        lastObjects[i] = null;
+      } else {
+        lastObjects[i] = field.get(request);
+      }
+    }
+    lastClass = request.getClass();
+  }
+
+  // The raw bits of a primitive field, so every primitive type compares the same way
+  private static long readPrimitive(Object request, Field field) throws IllegalAccessException {
+    Class<?> type = field.getType();
+    if (type == double.class) return Double.doubleToRawLongBits(field.getDouble(request));
+    if (type == float.class) return Float.floatToRawIntBits(field.getFloat(request));
+    if (type == boolean.class) return field.getBoolean(request) ? 1 : 0;
+    return field.getLong(request); // Widens byte, short, char, int and long
+  }
+
+  private static Field[] getFields(Class<?> type) {
+    Field[] fields = fieldsByClass.get(type);
+    if (fields == null) {
+      List<Field> instanceFields = new ArrayList<>();
+      for (Field field : type.getFields()) {
+        if (!Modifier.isStatic(field.getModifiers())) {
+          instanceFields.add(field);
+        }
+      }
+      fields = instanceFields.toArray(new Field[0]);
+      fieldsByClass.put(type, fields);
+    }
+    return fields;
+  }
+}
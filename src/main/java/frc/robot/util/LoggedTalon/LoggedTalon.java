@@ -2,6 +2,7 @@ package frc.robot.util.LoggedTalon;
 
 import static edu.wpi.first.units.Units.*;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.configs.FeedbackConfigs;
 import com.ctre.phoenix6.configs.MotionMagicConfigs;
 import com.ctre.phoenix6.configs.Slot0Configs;
@@ -13,6 +14,7 @@ import edu.wpi.first.units.measure.*;
 import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.DriverStation;
 import frc.robot.Constants;
+import frc.robot.util.CANSignalBudget;
 import frc.robot.util.LoggedTalon.Follower.PhoenixTalonFollower;
 import frc.robot.util.LoggedTalon.TalonFX.LoggedTalonFX;
 import frc.robot.util.LoggedTalon.TalonFX.NoOppTalonFX;
@@ -24,6 +26,7 @@ import frc.robot.util.LoggedTalon.TalonFXS.NoOppTalonFXS;
 import frc.robot.util.LoggedTalon.TalonFXS.PhoenixTalonFXS;
 import frc.robot.util.LoggedTunableMeasure;
 import frc.robot.util.LoggedTunableNumber;
+import frc.robot.util.PhoenixUtil;
 import java.util.function.Consumer;
 import org.littletonrobotics.junction.Logger;
 import org.littletonrobotics.junction.inputs.LoggableInputs;
@@ -115,6 +118,52 @@ import org.littletonrobotics.junction.inputs.LoggableInputs;
  * @see TalonFXFlywheelSim
  */
 public abstract class LoggedTalon<T extends LoggedTalon<T>> {
+  /**
+   * Status signal update rates for a mechanism's current state. Every motor starts in {@link
+   * #ACTIVE}, which matches the rates set at construction.
+   *
+   * <p>Each signal is capped at the rate {@link CANSignalBudget} reduced it to at startup, if it
+   * did, so switching profiles never undoes the budget. Its estimate only covers the starting
+   * profile.
+   *
+   * <p>On a motor with followers, electrical signals never drop below the main loop rate: a
+   * follower copies the leader's output from its voltage or torque current status signal, which
+   * CTRE says should update at 20 Hz or faster. See {@link #getElectricalHz(RateProfile)}.
+   */
+  public enum RateProfile {
+    /** Stowed or disabled. Enough to log state and notice faults. */
+    IDLE(10.0, 10.0, 4.0),
+
+    /** Normal operation, at the main loop rate. */
+    ACTIVE(
+        PhoenixUtil.kRioSignalUpdateFrequency,
+        PhoenixUtil.kRioSignalUpdateFrequency,
+        PhoenixUtil.kRioSignalUpdateFrequency),
+
+    /**
+     * Faster than the main loop so each refresh sees fresher feedback, with diagnostics slowed to
+     * pay for it.
+     */
+    HIGH_RATE(200.0, 100.0, 10.0);
+
+    /** Velocity and position, leader only. */
+    public final double feedbackHz;
+
+    /** Applied voltage and torque current. */
+    public final double electricalHz;
+
+    /** Supply current and temperature. */
+    public final double diagnosticHz;
+
+    RateProfile(double feedbackHz, double electricalHz, double diagnosticHz) {
+      this.feedbackHz = feedbackHz;
+      this.electricalHz = electricalHz;
+      this.diagnosticHz = diagnosticHz;
+    }
+  }
+
+  private static final double defaultKeepAliveSecs = 0.1;
+
   protected final String name;
   private final TalonInputsAutoLogged inputs = new TalonInputsAutoLogged();
   private final Alert[] connectionAlerts;
@@ -126,6 +175,12 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
   private MotionMagicConfigs mmTunedConfigs = null;
   private LoggedTalon<?>[] tuningFollowers = null;
   protected final int followers;
+  private RateProfile rateProfile = RateProfile.ACTIVE;
+
+  private final ControlRequestFilter controlFilter = new ControlRequestFilter();
+  private long keepAliveUs = (long) (defaultKeepAliveSecs * 1e6);
+  private long controlSent = 0;
+  private long controlSuppressed = 0;
 
   private final MutAngularVelocity velocity = RadiansPerSecond.mutable(0);
   private final MutAngle position = Radian.mutable(0);
@@ -186,6 +241,62 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
     for (int i = 0; i < followers + 1; i++) {
       connectionAlerts[i].set(!inputs.connected[i]);
     }
+    Logger.recordOutput("Motors/" + name + "/RateProfile", rateProfile);
+    Logger.recordOutput("Motors/" + name + "/ControlSent", controlSent);
+    Logger.recordOutput("Motors/" + name + "/ControlSuppressed", controlSuppressed);
+  }
+
+  /**
+   * Switch the status signal rates of this motor and its followers. Only sends frames to the
+   * device when the profile changes, so this may be called every loop.
+   *
+   * @param profile The new profile
+   */
+  public void setRateProfile(RateProfile profile) {
+    if (profile == rateProfile) return;
+    rateProfile = profile;
+    applyRateProfile(profile);
+  }
+
+  /**
+   * Get the current rate profile.
+   *
+   * @return the profile last passed to {@link #setRateProfile(RateProfile)}
+   */
+  public RateProfile getRateProfile() {
+    return rateProfile;
+  }
+
+  /**
+   * Apply new status signal rates to the device. NOOP unless overridden by a hardware
+   * implementation.
+   *
+   * @param profile The new profile
+   */
+  protected void applyRateProfile(RateProfile profile) {}
+
+  /**
+   * The rate to use for applied voltage and torque current under a profile. Followers copy their
+   * output from these leader signals, so with followers this is never below the main loop rate.
+   *
+   * @param profile The profile being applied
+   * @return The electrical signal rate, in Hz
+   */
+  protected double getElectricalHz(RateProfile profile) {
+    return followers > 0
+        ? Math.max(profile.electricalHz, PhoenixUtil.kRioSignalUpdateFrequency)
+        : profile.electricalHz;
+  }
+
+  /**
+   * Set a signal's rate for a profile, capped by {@link CANSignalBudget}. Uses a timeout of 0 so a
+   * profile switch doesn't block the main loop waiting for acknowledgements.
+   *
+   * @param signal The signal to change
+   * @param frequencyHz The profile's rate for it
+   */
+  protected static void setProfileRate(BaseStatusSignal signal, double frequencyHz) {
+    signal.setUpdateFrequency(CANSignalBudget.getBudgetedHz(signal, frequencyHz), 0.0);
   }
 
   /**
@@ -211,6 +322,8 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
    *     #applyAllTuningChanges(double[])}
    */
   private void applyTuningChange(double[] values) {
+    // Applied asynchronously; tuned values may reach the device a few loops after the control
+    // requests around them, which is fine for tuning but not for profiles a move depends on
     if (tunedConfigs != null) {
       tunedConfigs.kP = values[0];
       tunedConfigs.kI = values[1];
@@ -350,12 +463,41 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
   /**
    * Command the motor.
    *
-   * <p>This is equivalent to {@link TalonFX#setControl(ControlRequest)}
+   * <p>This is equivalent to {@link TalonFX#setControl(ControlRequest)}, except a request equal to
+   * the last one sent is skipped unless the keep-alive period has passed. See {@link
+   * #withKeepAlivePeriod(double)}
    *
    * @see TalonFX#setControl(ControlRequest)
    * @param controlRequest The request
    */
-  public abstract void setControl(ControlRequest controlRequest);
+  public void setControl(ControlRequest controlRequest) {
+    if (controlFilter.shouldSend(controlRequest, Logger.getTimestamp(), keepAliveUs)) {
+      controlSent++;
+      setControlUnchecked(controlRequest);
+    } else {
+      controlSuppressed++;
+    }
+  }
+
+  /**
+   * Send a request to the motor, even if it is unchanged.
+   *
+   * @param controlRequest The request
+   */
+  protected abstract void setControlUnchecked(ControlRequest controlRequest);
+
+  /**
+   * Set how often an unchanged control request is resent. The device keeps repeating the last
+   * request it received on its own, so this only bounds how long a request lost on the bus or to a
+   * device reset goes uncorrected.
+   *
+   * @param seconds The keep-alive period. 0 sends every request.
+   * @return {@code this} for method chaining
+   */
+  public T withKeepAlivePeriod(double seconds) {
+    keepAliveUs = (long) (seconds * 1e6);
+    return self();
+  }
 
   /**
    * Update inputs.
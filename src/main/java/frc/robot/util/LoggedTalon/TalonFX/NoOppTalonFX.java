@@ -45,7 +45,7 @@ public class NoOppTalonFX extends LoggedTalonFX {
    * @see TalonFX#setControl(ControlRequest)
    */
   @Override
-  public void setControl(ControlRequest controlRequest) {}
+  protected void setControlUnchecked(ControlRequest controlRequest) {}
 
   /**
    * Update inputs.
@@ -12,6 +12,8 @@ import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.MotorAlignmentValue;
 import edu.wpi.first.math.filter.Debouncer;
 import edu.wpi.first.units.measure.*;
+import frc.robot.util.CANSignalBudget.Priority;
+import frc.robot.util.LoggedTalon.ConfigApplier;
 import frc.robot.util.LoggedTalon.Follower.PhoenixTalonFollower;
 import frc.robot.util.LoggedTalon.TalonInputs;
 import frc.robot.util.PhoenixUtil;
@@ -28,6 +30,11 @@ public class PhoenixTalonFX extends LoggedTalonFX {
   private final StatusSignal<AngularVelocity> velocitySignal;
   private final StatusSignal<Angle> positionSignal;
 
+  // Applied in the background by ConfigApplier
+  private final ConfigApplier.Slot<TalonFXConfiguration> configSlot;
+  private final ConfigApplier.Slot<SlotConfigs> slotConfigSlot;
+  private final ConfigApplier.Slot<MotionMagicConfigs> motionMagicConfigSlot;
+
   /**
    * Create a TalonFX that actually interacts with hardware (or CRTE's high fidelity simulation)
    *
@@ -65,26 +72,60 @@ public class PhoenixTalonFX extends LoggedTalonFX {
       torqueCurrentSignal[i] = talonFX[i].getTorqueCurrent();
       supplyCurrentSignal[i] = talonFX[i].getSupplyCurrent();
       temperatureSignal[i] = talonFX[i].getDeviceTemp();
-      BaseStatusSignal.setUpdateFrequencyForAll(
+      PhoenixUtil.registerSignals(
+          canBus,
+          talonFX[i],
           PhoenixUtil.kRioSignalUpdateFrequency,
+          Priority.NORMAL,
           voltageSignal[i],
-          torqueCurrentSignal[i],
+          torqueCurrentSignal[i]);
+      PhoenixUtil.registerSignals(
+          canBus,
+          talonFX[i],
+          PhoenixUtil.kRioSignalUpdateFrequency,
+          Priority.LOW,
           supplyCurrentSignal[i],
           temperatureSignal[i]);
-      talonFX[i].optimizeBusUtilization(PhoenixUtil.kOptimizedSignalFrequency);
     }
     velocitySignal = talonFX[0].getVelocity();
     positionSignal = talonFX[0].getPosition();
+    PhoenixUtil.registerSignals(
+        canBus,
+        talonFX[0],
+        PhoenixUtil.kRioSignalUpdateFrequency,
+        Priority.NORMAL,
+        velocitySignal,
+        positionSignal);
+
+    // Only after every signal has an explicit frequency, or it will be disabled
+    for (int i = 0; i <= followers.length; i++) {
+      talonFX[i].optimizeBusUtilization(PhoenixUtil.kOptimizedSignalFrequency);
+    }
 
-    PhoenixUtil.registerSignals(canBus, voltageSignal);
-    PhoenixUtil.registerSignals(canBus, torqueCurrentSignal);
-    PhoenixUtil.registerSignals(canBus, supplyCurrentSignal);
-    PhoenixUtil.registerSignals(canBus, velocitySignal, positionSignal);
+    var configurator = talonFX[0].getConfigurator();
+    configSlot =
+        new ConfigApplier.Slot<>(
+            name + " config",
+            TalonFXConfiguration::new,
+            ConfigApplier::serializedEquals,
+            config -> configurator.apply(config));
+    slotConfigSlot =
+        new ConfigApplier.Slot<>(
+            name + " slot config",
+            SlotConfigs::new,
+            ConfigApplier::slotEquals,
+            config -> configurator.apply(config));
+    motionMagicConfigSlot =
+        new ConfigApplier.Slot<>(
+            name + " motion magic config",
+            MotionMagicConfigs::new,
+            ConfigApplier::motionMagicEquals,
+            config -> configurator.apply(config));
   }
 
   /** {@inheritDoc} */
   @Override
-  public void setControl(ControlRequest controlRequest) {
+  protected void setControlUnchecked(ControlRequest controlRequest) {
     talonFX[0].setControl(controlRequest);
   }
 
@@ -124,19 +165,32 @@ public class PhoenixTalonFX extends LoggedTalonFX {
   /** {@inheritDoc} */
   @Override
   public void quickApplyConfig(TalonFXConfiguration config) {
-    PhoenixUtil.tryUntilOk(3, () -> talonFX[0].getConfigurator().apply(config));
+    configSlot.submit(config);
   }
 
   /** {@inheritDoc} */
   @Override
   public void quickApplyConfig(SlotConfigs config) {
-    PhoenixUtil.tryUntilOk(3, () -> talonFX[0].getConfigurator().apply(config));
+    slotConfigSlot.submit(config);
   }
 
   /** {@inheritDoc} */
   @Override
   public void quickApplyConfig(MotionMagicConfigs config) {
-    PhoenixUtil.tryUntilOk(3, () -> talonFX[0].getConfigurator().apply(config));
+    motionMagicConfigSlot.submit(config);
+  }
+
+  @Override
+  protected void applyRateProfile(RateProfile profile) {
+    double electricalHz = getElectricalHz(profile);
+    for (int i = 0; i <= super.followers; i++) {
+      setProfileRate(voltageSignal[i], electricalHz);
+      setProfileRate(torqueCurrentSignal[i], electricalHz);
+      setProfileRate(supplyCurrentSignal[i], profile.diagnosticHz);
+      setProfileRate(temperatureSignal[i], profile.diagnosticHz);
+    }
+    setProfileRate(velocitySignal, profile.feedbackHz);
+    setProfileRate(positionSignal, profile.feedbackHz);
   }
 
   /** {@inheritDoc} */
@@ -41,7 +41,7 @@ public class NoOppTalonFXS extends LoggedTalonFXS {
 
   /** {@inheritDoc} */
   @Override
-  public void setControl(ControlRequest controlRequest) {}
+  protected void setControlUnchecked(ControlRequest controlRequest) {}
 
   /** {@inheritDoc} */
   @Override
@@ -10,8 +10,15 @@ package frc.robot.util;
 import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.CANBus;
 import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import edu.wpi.first.wpilibj.DriverStation;
 import frc.robot.Robot;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
+import org.littletonrobotics.junction.Logger;
 
 public class PhoenixUtil {
 
@@ -37,6 +44,24 @@ public class PhoenixUtil {
 
   private static BaseStatusSignal[] rioSignals = new BaseStatusSignal[0];
 
+  // Blocking refresh calls made from the main loop since the last getAndResetRefreshCount()
+  private static int refreshCount = 0;
+
+  // Refreshes the CANivore bus on a dedicated thread while the main thread refreshes the RIO bus,
+  // so each loop pays the slower bus's latency instead of the sum of both.
+  private static final boolean useConcurrentRefresh = false;
+  private static final ExecutorService refreshExecutor =
+      useConcurrentRefresh
+          ? Executors.newSingleThreadExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "PhoenixCANivoreRefresh");
+                thread.setDaemon(true);
+                return thread;
+              })
+          : null;
+  private static final Runnable canivoreRefreshTask = PhoenixUtil::refreshCanivoreTimed;
+  private static volatile double canivoreRefreshMs = 0.0;
+
   /** Registers a set of signals for synchronized refresh. */
   public static void registerSignals(boolean canivore, BaseStatusSignal... signals) {
     if (canivore) {
@@ -56,14 +81,94 @@ public class PhoenixUtil {
     registerSignals(canBus.isNetworkFD(), signals);
   }
 
-  /** Refresh all registered signals. */
+  /**
+   * Sets the update frequency of a device's signals, records them in the {@link CANSignalBudget}
+   * and registers them for synchronized refresh. Call before optimizing the device's bus
+   * utilization, which disables any signal without an explicit frequency.
+   */
+  public static void registerSignals(
+      CANBus canBus,
+      ParentDevice device,
+      double frequencyHz,
+      CANSignalBudget.Priority priority,
+      BaseStatusSignal... signals) {
+    BaseStatusSignal.setUpdateFrequencyForAll(frequencyHz, signals);
+    CANSignalBudget.register(canBus, device, frequencyHz, priority, signals);
+    registerSignals(canBus, signals);
+  }
+
+  /** Refresh all registered signals. Returns once both buses are refreshed. */
   public static void refreshAll() {
+    long startNs = System.nanoTime();
+    canivoreRefreshMs = 0.0;
+    Future<?> canivoreRefresh = null;
     if (canivoreSignals.length > 0) {
-      BaseStatusSignal.refreshAll(canivoreSignals);
+      if (refreshExecutor != null && rioSignals.length > 0) {
+        refreshCount++;
+        canivoreRefresh = refreshExecutor.submit(canivoreRefreshTask);
+      } else {
+        refreshCount++;
+        refreshCanivoreTimed();
+      }
     }
+
+    long rioStartNs = System.nanoTime();
     if (rioSignals.length > 0) {
-      BaseStatusSignal.refreshAll(rioSignals);
+      refresh(rioSignals);
+    }
+    double rioRefreshMs = (System.nanoTime() - rioStartNs) / 1e6;
+
+    if (canivoreRefresh != null) {
+      // Wait for the refresh to finish even if interrupted, so the main thread never refreshes the
+      // same signals while the executor is still inside refreshAll. The interrupt is restored.
+      boolean interrupted = false;
+      while (true) {
+        try {
+          canivoreRefresh.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          // The task has finished, so it is safe to redo it here
+          DriverStation.reportWarning(
+              "Concurrent CANivore refresh failed, refreshing synchronously: " + e.getCause(),
+              false);
+          refreshCanivoreTimed();
+          break;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
     }
+
+    Logger.recordOutput("PhoenixUtil/CANivoreRefreshMs", canivoreRefreshMs);
+    Logger.recordOutput("PhoenixUtil/RioRefreshMs", rioRefreshMs);
+    Logger.recordOutput("PhoenixUtil/RefreshAllMs", (System.nanoTime() - startNs) / 1e6);
+  }
+
+  // Runs on the refresh executor when refreshing concurrently; counted by the caller
+  private static void refreshCanivoreTimed() {
+    long startNs = System.nanoTime();
+    BaseStatusSignal.refreshAll(canivoreSignals);
+    canivoreRefreshMs = (System.nanoTime() - startNs) / 1e6;
+  }
+
+  /**
+   * Refreshes signals outside the synchronized batch. Each call is a blocking CAN round trip, so
+   * prefer {@link #registerSignals}; use this instead of {@code signal.refresh()} so the call is
+   * counted.
+   */
+  public static StatusCode refresh(BaseStatusSignal... signals) {
+    refreshCount++;
+    return BaseStatusSignal.refreshAll(signals);
+  }
+
+  /** Returns the number of refresh calls since the last call, then resets the count. */
+  public static int getAndResetRefreshCount() {
+    int count = refreshCount;
+    refreshCount = 0;
+    return count;
   }
 
   private static final double CONNECTED_LATENCY_S = 0.500; // Phoenix default
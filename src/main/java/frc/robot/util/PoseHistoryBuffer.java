@@ -0,0 +1,203 @@
+package frc.robot.util;
+
+/**
+ * Fixed-capacity ring of timestamped robot poses and field-relative velocities, stored in
+ * primitive arrays so writing and sampling never allocate.
+ *
+ * <p>{@link #sample(double)} interpolates between the two samples around a timestamp. Past the
+ * newest sample it extrapolates at that sample's velocity, up to a limit so a stalled producer
+ * cannot push the estimate arbitrarily far. Before the oldest sample it returns the oldest sample.
+ * Results are read back through the {@code getSample*} methods.
+ *
+ * <p>Timestamps must be added in increasing order. Not thread safe.
+ */
+public class PoseHistoryBuffer {
+  private final int capacity;
+  private final double maxExtrapolationSec;
+
+  private final double[] timestampSec;
+  private final double[] xMeters;
+  private final double[] yMeters;
+  private final double[] thetaRad;
+  private final double[] vxMetersPerSec;
+  private final double[] vyMetersPerSec;
+  private final double[] omegaRadPerSec;
+
+  private int oldest = 0;
+  private int count = 0;
+
+  private double sampleX;
+  private double sampleY;
+  private double sampleTheta;
+  private double sampleVx;
+  private double sampleVy;
+  private double sampleOmega;
+
+  /**
+   * Create an empty buffer.
+   *
+   * @param capacity number of samples kept; the oldest is overwritten when full
+   * @param maxExtrapolationSec how far past the newest sample {@link #sample(double)} projects
+   */
+  public PoseHistoryBuffer(int capacity, double maxExtrapolationSec) {
+    this.capacity = capacity;
+    this.maxExtrapolationSec = maxExtrapolationSec;
+    timestampSec = new double[capacity];
+    xMeters = new double[capacity];
+    yMeters = new double[capacity];
+    thetaRad = new double[capacity];
+    vxMetersPerSec = new double[capacity];
+    vyMetersPerSec = new double[capacity];
+    omegaRadPerSec = new double[capacity];
+  }
+
+  /**
+   * Adds a sample. Samples not newer than the latest one are ignored.
+   *
+   * @param timestampSec sample time
+   * @param xMeters field x
+   * @param yMeters field y
+   * @param thetaRad heading
+   * @param vxMetersPerSec field-relative x velocity
+   * @param vyMetersPerSec field-relative y velocity
+   * @param omegaRadPerSec angular velocity
+   */
+  public void add(
+      double timestampSec,
+      double xMeters,
+      double yMeters,
+      double thetaRad,
+      double vxMetersPerSec,
+      double vyMetersPerSec,
+      double omegaRadPerSec) {
+    if (count > 0 && timestampSec <= this.timestampSec[index(count - 1)]) {
+      return;
+    }
+    int slot;
+    if (count == capacity) {
+      slot = oldest;
+      oldest = index(1);
+    } else {
+      slot = index(count);
+      count++;
+    }
+    this.timestampSec[slot] = timestampSec;
+    this.xMeters[slot] = xMeters;
+    this.yMeters[slot] = yMeters;
+    this.thetaRad[slot] = thetaRad;
+    this.vxMetersPerSec[slot] = vxMetersPerSec;
+    this.vyMetersPerSec[slot] = vyMetersPerSec;
+    this.omegaRadPerSec[slot] = omegaRadPerSec;
+  }
+
+  /** Removes every sample, e.g. after the pose is reset. */
+  public void clear() {
+    oldest = 0;
+    count = 0;
+  }
+
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  /** Returns the timestamp of the newest sample, or NaN if empty. */
+  public double getLatestTimestampSec() {
+    return count == 0 ? Double.NaN : timestampSec[index(count - 1)];
+  }
+
+  /**
+   * Estimates the state at a timestamp.
+   *
+   * @param timestampSec the time to sample
+   * @return false if the buffer is empty, in which case the outputs are unchanged
+   */
+  public boolean sample(double timestampSec) {
+    if (count == 0) {
+      return false;
+    }
+
+    int newest = index(count - 1);
+    if (timestampSec >= this.timestampSec[newest]) {
+      double dt = Math.min(timestampSec - this.timestampSec[newest], maxExtrapolationSec);
+      sampleVx = vxMetersPerSec[newest];
+      sampleVy = vyMetersPerSec[newest];
+      sampleOmega = omegaRadPerSec[newest];
+      sampleX = xMeters[newest] + sampleVx * dt;
+      sampleY = yMeters[newest] + sampleVy * dt;
+      sampleTheta = thetaRad[newest] + sampleOmega * dt;
+      return true;
+    }
+    if (!(timestampSec > this.timestampSec[oldest])) {
+      copySample(oldest);
+      return true;
+    }
+
+    // Binary search for the first sample newer than the timestamp.
+    int low = 0;
+    int high = count - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (this.timestampSec[index(mid)] > timestampSec) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    int after = index(low);
+    int before = index(low - 1);
+    double t =
+        (timestampSec - this.timestampSec[before])
+            / (this.timestampSec[after] - this.timestampSec[before]);
+    sampleX = lerp(xMeters[before], xMeters[after], t);
+    sampleY = lerp(yMeters[before], yMeters[after], t);
+    sampleTheta =
+        thetaRad[before] + Math.IEEEremainder(thetaRad[after] - thetaRad[before], 2 * Math.PI) * t;
+    sampleVx = lerp(vxMetersPerSec[before], vxMetersPerSec[after], t);
+    sampleVy = lerp(vyMetersPerSec[before], vyMetersPerSec[after], t);
+    sampleOmega = lerp(omegaRadPerSec[before], omegaRadPerSec[after], t);
+    return true;
+  }
+
+  public double getSampleX() {
+    return sampleX;
+  }
+
+  public double getSampleY() {
+    return sampleY;
+  }
+
+  public double getSampleTheta() {
+    return sampleTheta;
+  }
+
+  public double getSampleVx() {
+    return sampleVx;
+  }
+
+  public double getSampleVy() {
+    return sampleVy;
+  }
+
+  public double getSampleOmega() {
+    return sampleOmega;
+  }
+
+  private void copySample(int slot) {
+    sampleX = xMeters[slot];
+    sampleY = yMeters[slot];
+    sampleTheta = thetaRad[slot];
+    sampleVx = vxMetersPerSec[slot];
+    sampleVy = vyMetersPerSec[slot];
+    sampleOmega = omegaRadPerSec[slot];
+  }
+
+  // Ring slot of the sample that is offset places after the oldest.
+  private int index(int offset) {
+    int slot = oldest + offset;
+    return slot >= capacity ? slot - capacity : slot;
+  }
+
+  private static double lerp(double start, double end, double t) {
+    return start + ((end - start) * t);
+  }
+}
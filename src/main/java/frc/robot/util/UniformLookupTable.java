@@ -0,0 +1,69 @@
+package frc.robot.util;
+
+/**
+ * Linear interpolation table over a uniformly spaced x grid, backed by a primitive array.
+ *
+ * <p>Because the nodes are evenly spaced, the bracketing pair for a lookup comes straight from the
+ * index math: no tree walk, no autoboxing and no per-node objects. Inputs outside the grid clamp to
+ * the end values, the same as {@link edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap}.
+ */
+public class UniformLookupTable {
+  private final double minX;
+  private final double step;
+  private final double inverseStep;
+  private final double[] values;
+
+  /**
+   * Create a table with every node set to 0.
+   *
+   * @param minX x value of the first node
+   * @param maxX x value of the last node
+   * @param size number of nodes, at least 2
+   */
+  public UniformLookupTable(double minX, double maxX, int size) {
+    if (size < 2 || !(maxX > minX)) {
+      throw new IllegalArgumentException(
+          "UniformLookupTable needs at least 2 nodes over a non-empty range");
+    }
+    this.minX = minX;
+    this.step = (maxX - minX) / (size - 1);
+    this.inverseStep = 1.0 / step;
+    this.values = new double[size];
+  }
+
+  /** Returns the number of nodes. */
+  public int size() {
+    return values.length;
+  }
+
+  /** Returns the x value of the node at {@code index}. */
+  public double getX(int index) {
+    return minX + (index * step);
+  }
+
+  /** Sets the value of the node at {@code index}. */
+  public void set(int index, double value) {
+    values[index] = value;
+  }
+
+  /**
+   * Returns the linearly interpolated value at {@code x}, clamped to the first and last nodes.
+   *
+   * @param x the lookup position
+   * @return the interpolated value
+   */
+  public double get(double x) {
+    double position = (x - minX) * inverseStep;
+    // Also catches NaN so a bad input can never index out of bounds.
+    if (!(position > 0.0)) {
+      return values[0];
+    }
+    int lastIndex = values.length - 1;
+    if (position >= lastIndex) {
+      return values[lastIndex];
+    }
+    int index = (int) position;
+    double t = position - index;
+    return values[index] + ((values[index + 1] - values[index]) * t);
+  }
+}